@@ -0,0 +1,84 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Số token ký / kiểm tra mỗi giây: cách cũ (decode secret + dựng parser ở mỗi lần gọi)
+ * so với JwtUtil hiện tại (SecretKey + JwtParser tạo 1 lần khi khởi động).
+ *
+ * - legacyGenerate / legacyVerify: giống JwtUtil trước đây, signWith(HS256, secret) và
+ *   Jwts.parser().setSigningKey(secret).build().parseClaimsJws(token) ở mỗi lần gọi
+ * - cachedGenerate / cachedVerify: JwtUtil.generateAccessToken / JwtUtil.parse
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JwtUtilBenchmark {
+
+    private static final String USERNAME = "benchmark-user";
+    private static final int ROLE_ID = 2;
+    private static final long ACCESS_EXP = 15 * 60 * 1000;
+
+    // 256 bit cho HS256, base64 giống jwt.secret
+    private final String secret = Base64.getEncoder().encodeToString(new byte[32]);
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(secret);
+        token = jwtUtil.generateAccessToken(USERNAME, ROLE_ID);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String legacyGenerate() {
+        return Jwts.builder()
+                .setSubject(USERNAME)
+                .claim(JwtUtil.CLAIM_ROLE_ID, ROLE_ID)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ACCESS_EXP))
+                .signWith(SignatureAlgorithm.HS256, secret)
+                .compact();
+    }
+
+    @Benchmark
+    public String cachedGenerate() {
+        return jwtUtil.generateAccessToken(USERNAME, ROLE_ID);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Claims legacyVerify() {
+        return Jwts.parser()
+                .setSigningKey(secret)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims cachedVerify() {
+        return jwtUtil.parse(token);
+    }
+}
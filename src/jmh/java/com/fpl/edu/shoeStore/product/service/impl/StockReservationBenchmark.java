@@ -0,0 +1,196 @@
+package com.fpl.edu.shoeStore.product.service.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MariaDBContainer;
+
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Giữ hàng trên MariaDB thật: nhiều luồng cùng checkout, so sánh đường DB với sổ tồn kho trong bộ nhớ.
+ *
+ * - dbReserveHotVariant: StockReservationServiceImpl.reserve cho 1 SKU nóng (SELECT ... FOR UPDATE + reserveStock)
+ * - dbReserveStockHotVariant: chỉ câu UPDATE có điều kiện productVariantMapper.reserveStock trên SKU nóng
+ * - dbReserveSpreadVariants: như dbReserveHotVariant nhưng rải trên nhiều SKU (ít tranh chấp khóa dòng)
+ * - ledgerReserveHotVariant: StockReservationServiceImpl.reserve cho SKU do StockLedgerService quản lý
+ * - ledgerReserveOnly: StockLedgerService.reserve không transaction (chi phí thuần trong bộ nhớ)
+ *
+ * Mỗi lần gọi chạy trong TransactionTemplate giống @Transactional của createOrder.
+ * Mặc định MariaDB chạy bằng Testcontainers (cần Docker). Dùng DB có sẵn (nên là database riêng cho benchmark):
+ * -Djmh.args="StockReservationBenchmark -jvmArgsAppend -Dbenchmark.jdbc.url=jdbc:mariadb://host/db
+ * -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=..."
+ * Các dòng benchmark có variant_id 900001, 900002, 900101-900200, được xóa khi kết thúc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+public class StockReservationBenchmark {
+
+    private static final int HOT_VARIANT_ID = 900_001;
+    private static final int LEDGER_VARIANT_ID = 900_002;
+    private static final int SPREAD_FIRST_ID = 900_101;
+    private static final int SPREAD_VARIANTS = 100;
+    // Đủ lớn để không hết hàng trong suốt lần chạy
+    private static final int INITIAL_STOCK = 2_000_000_000;
+
+    private MariaDBContainer<?> container;
+    private HikariDataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+    private ProductVariantMapper productVariantMapper;
+    private StockLedgerServiceImpl stockLedgerService;
+    private StockReservationServiceImpl dbReservationService;
+    private StockReservationServiceImpl ledgerReservationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("benchmark.jdbc.url");
+        String user = System.getProperty("benchmark.jdbc.user");
+        String password = System.getProperty("benchmark.jdbc.password");
+        if (url == null) {
+            container = new MariaDBContainer<>("mariadb:11.4");
+            container.start();
+            url = container.getJdbcUrl();
+            user = container.getUsername();
+            password = container.getPassword();
+        }
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(16);
+        createVariants();
+
+        SqlSessionFactoryBean sqlSessionFactory = new SqlSessionFactoryBean();
+        sqlSessionFactory.setDataSource(dataSource);
+        sqlSessionFactory.setMapperLocations(new ClassPathResource("mybatis/mapper/product/ProductVariantMapper.xml"));
+        productVariantMapper = new SqlSessionTemplate(sqlSessionFactory.getObject()).getMapper(ProductVariantMapper.class);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // Sổ tồn kho chỉ quản lý LEDGER_VARIANT_ID, flush xuống DB như cấu hình mặc định
+        stockLedgerService = new StockLedgerServiceImpl(productVariantMapper);
+        ReflectionTestUtils.setField(stockLedgerService, "enabled", true);
+        ReflectionTestUtils.setField(stockLedgerService, "variantIds", String.valueOf(LEDGER_VARIANT_ID));
+        ReflectionTestUtils.setField(stockLedgerService, "flushIntervalMs", 200L);
+        stockLedgerService.start();
+
+        dbReservationService = new StockReservationServiceImpl(productVariantMapper,
+                new StockLedgerServiceImpl(productVariantMapper));
+        ledgerReservationService = new StockReservationServiceImpl(productVariantMapper, stockLedgerService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (stockLedgerService != null) {
+            stockLedgerService.stop();
+        }
+        if (dataSource != null) {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM product_variants WHERE variant_id IN (" + HOT_VARIANT_ID + ", "
+                        + LEDGER_VARIANT_ID + ") OR variant_id BETWEEN " + SPREAD_FIRST_ID + " AND "
+                        + (SPREAD_FIRST_ID + SPREAD_VARIANTS - 1));
+            }
+            dataSource.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public List<Integer> dbReserveHotVariant() {
+        return transactionTemplate.execute(status -> dbReservationService.reserve(Map.of(HOT_VARIANT_ID, 1)));
+    }
+
+    @Benchmark
+    public Integer dbReserveStockHotVariant() {
+        return transactionTemplate.execute(status -> productVariantMapper.reserveStock(Map.of(HOT_VARIANT_ID, 1)));
+    }
+
+    @Benchmark
+    public List<Integer> dbReserveSpreadVariants() {
+        int variantId = SPREAD_FIRST_ID + ThreadLocalRandom.current().nextInt(SPREAD_VARIANTS);
+        return transactionTemplate.execute(status -> dbReservationService.reserve(Map.of(variantId, 1)));
+    }
+
+    @Benchmark
+    public List<Integer> ledgerReserveHotVariant() {
+        return transactionTemplate.execute(status -> ledgerReservationService.reserve(Map.of(LEDGER_VARIANT_ID, 1)));
+    }
+
+    @Benchmark
+    public List<Integer> ledgerReserveOnly() {
+        return stockLedgerService.reserve(Map.of(LEDGER_VARIANT_ID, 1));
+    }
+
+    // Chỉ tạo các cột mà ProductVariantMapper.xml đọc / ghi; DB có sẵn bảng thật thì giữ nguyên bảng
+    private void createVariants() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TABLE IF NOT EXISTS product_variants (
+                            variant_id INT PRIMARY KEY AUTO_INCREMENT,
+                            product_id INT NULL,
+                            variant_name VARCHAR(255) NULL,
+                            product_variant_code VARCHAR(100) NULL,
+                            price DECIMAL(12, 2) NULL,
+                            stock_qty INT NOT NULL DEFAULT 0,
+                            is_active TINYINT(1) NOT NULL DEFAULT 1,
+                            created_at DATETIME NULL,
+                            updated_at DATETIME NULL,
+                            weight_grams INT NULL,
+                            attribute VARCHAR(255) NULL,
+                            image VARCHAR(255) NULL,
+                            create_by INT NULL,
+                            update_by INT NULL
+                        ) ENGINE = InnoDB""");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO product_variants (variant_id, stock_qty) VALUES (?, ?)
+                    ON DUPLICATE KEY UPDATE stock_qty = VALUES(stock_qty)""")) {
+                addVariant(insert, HOT_VARIANT_ID);
+                addVariant(insert, LEDGER_VARIANT_ID);
+                for (int i = 0; i < SPREAD_VARIANTS; i++) {
+                    addVariant(insert, SPREAD_FIRST_ID + i);
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static void addVariant(PreparedStatement insert, int variantId) throws Exception {
+        insert.setInt(1, variantId);
+        insert.setInt(2, INITIAL_STOCK);
+        insert.addBatch();
+    }
+}
@@ -1,13 +1,27 @@
 package com.fpl.edu.shoeStore.auth.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.fpl.edu.shoeStore.auth.security.AdaptivePasswordEncoder;
 
 @Configuration
 public class PasswordEndcoderConfig {
+
+    /**
+     * auth.bcrypt.strength: cost cố định dùng chung cho cả cluster (mặc định 10, không thấp hơn 10)
+     * auth.bcrypt.calibrate=true: đo tốc độ lúc khởi động và chỉ ghi log cost đề xuất cho target-hash-ms,
+     * không tự đổi cost để các node không băm với cost khác nhau
+     */
     @Bean
-     public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+     public AdaptivePasswordEncoder bCryptPasswordEncoder(
+            @Value("${auth.bcrypt.strength:10}") int strength,
+            @Value("${auth.bcrypt.calibrate:false}") boolean calibrate,
+            @Value("${auth.bcrypt.target-hash-ms:100}") long targetHashMs) {
+        if (calibrate) {
+            AdaptivePasswordEncoder.calibrate(targetHashMs);
+        }
+        return new AdaptivePasswordEncoder(strength);
     }
 }
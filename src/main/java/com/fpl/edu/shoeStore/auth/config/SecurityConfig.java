@@ -9,6 +9,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.CookieClearingLogoutHandler;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import com.fpl.edu.shoeStore.auth.handler.AdminAuthenticationSuccessHandler;
@@ -16,6 +17,7 @@ import com.fpl.edu.shoeStore.auth.handler.CustomAccessDeniedHandler;
 import com.fpl.edu.shoeStore.auth.handler.CustomAuthEntryPoint;
 import com.fpl.edu.shoeStore.auth.security.JwtAuthFilter;
 
+import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 
 
@@ -85,6 +87,8 @@ public class SecurityConfig {
                 .logoutUrl("/admin/logout")
                 .logoutSuccessUrl("/admin/login?logout=true")
                 .deleteCookies("accessToken", "refreshToken", "JSESSIONID")
+                // refreshToken của admin nằm ở path /api/v1/auth (deleteCookies chỉ xóa ở path "/")
+                .addLogoutHandler(new CookieClearingLogoutHandler(expiredCookie("refreshToken", "/api/v1/auth")))
                 .permitAll()
             )
             .exceptionHandling(ex -> ex
@@ -96,4 +100,11 @@ public class SecurityConfig {
             
         return http.build();
     }
+
+    private static Cookie expiredCookie(String name, String path) {
+        Cookie cookie = new Cookie(name, null);
+        cookie.setPath(path);
+        cookie.setMaxAge(0);
+        return cookie;
+    }
 }
@@ -9,8 +9,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fpl.edu.shoeStore.auth.dto.request.LoginRequestDto;
 import com.fpl.edu.shoeStore.auth.dto.request.RegisterRequestDto;
+import com.fpl.edu.shoeStore.auth.security.LoginRateLimiter;
 import com.fpl.edu.shoeStore.auth.service.AuthService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -20,10 +22,11 @@ import lombok.RequiredArgsConstructor;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto req) {
-        return authService.login(req);
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto req, HttpServletRequest request) {
+        return authService.login(req, loginRateLimiter.resolveClientIp(request));
     }
 
     @PostMapping("/register")
@@ -38,7 +41,8 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        return authService.logout();
+    public ResponseEntity<?> logout(
+            @CookieValue(name = "refreshToken", required = false) String refreshToken) {
+        return authService.logout(refreshToken);
     }
 }
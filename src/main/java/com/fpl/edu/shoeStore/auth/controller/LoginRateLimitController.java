@@ -0,0 +1,37 @@
+package com.fpl.edu.shoeStore.auth.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fpl.edu.shoeStore.auth.dto.response.LoginRateLimitStats;
+import com.fpl.edu.shoeStore.auth.security.LoginRateLimiter;
+import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ADMIN: Theo dõi giới hạn tần suất đăng nhập
+ * Base URL: /api/v1/admin/auth/login-rate-limit
+ */
+@RestController
+@RequestMapping("/api/v1/admin/auth/login-rate-limit")
+@RequiredArgsConstructor
+public class LoginRateLimitController {
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    /**
+     * GET /api/v1/admin/auth/login-rate-limit/stats
+     */
+    @GetMapping("/stats")
+    public ApiResponse<LoginRateLimitStats> getStats() {
+        return ApiResponse.<LoginRateLimitStats>builder()
+                .success(true)
+                .statusCode(HttpStatus.OK.value())
+                .message("Lấy thống kê giới hạn đăng nhập thành công")
+                .data(loginRateLimiter.stats())
+                .build();
+    }
+}
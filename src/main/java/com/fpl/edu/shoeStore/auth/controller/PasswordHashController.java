@@ -0,0 +1,38 @@
+package com.fpl.edu.shoeStore.auth.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fpl.edu.shoeStore.auth.dto.response.PasswordHashStats;
+import com.fpl.edu.shoeStore.auth.security.AdaptivePasswordEncoder;
+import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ADMIN: Theo dõi chi phí băm mật khẩu (BCrypt)
+ * Base URL: /api/v1/admin/auth/password-hash
+ */
+@RestController
+@RequestMapping("/api/v1/admin/auth/password-hash")
+@RequiredArgsConstructor
+public class PasswordHashController {
+
+    private final AdaptivePasswordEncoder passwordEncoder;
+
+    /**
+     * GET /api/v1/admin/auth/password-hash/stats
+     * cost hiện tại + số lần / thời gian trung bình / lớn nhất của encode và matches
+     */
+    @GetMapping("/stats")
+    public ApiResponse<PasswordHashStats> getStats() {
+        return ApiResponse.<PasswordHashStats>builder()
+                .success(true)
+                .statusCode(HttpStatus.OK.value())
+                .message("Lấy thống kê băm mật khẩu thành công")
+                .data(passwordEncoder.stats())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.fpl.edu.shoeStore.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cấu hình + số lần đăng nhập được cho qua / bị chặn của LoginRateLimiter (cộng dồn từ lúc khởi động).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginRateLimitStats {
+    private boolean enabled;
+    private int stripes;
+    private int ipCapacity;
+    private int ipRefillPerMinute;
+    private int usernameCapacity;
+    private int usernameRefillPerMinute;
+    private long allowed;
+    private long rejectedByIp;
+    private long rejectedByUsername;
+}
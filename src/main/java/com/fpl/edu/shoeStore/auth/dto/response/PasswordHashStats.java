@@ -0,0 +1,23 @@
+package com.fpl.edu.shoeStore.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thời gian băm / so khớp mật khẩu (cộng dồn từ lúc khởi động), dùng để ước lượng CPU cho đăng nhập.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordHashStats {
+    private int strength;
+    private long encodeCount;
+    private double encodeAvgMs;
+    private double encodeMaxMs;
+    private long matchCount;
+    private double matchAvgMs;
+    private double matchMaxMs;
+}
@@ -0,0 +1,25 @@
+package com.fpl.edu.shoeStore.auth.entity;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một refresh token đã phát hành (bảng refresh_tokens), định danh bằng claim jti.
+ * revokedAt != null: đã dùng để đổi token mới (replacedBy = jti mới), đã đăng xuất hoặc bị thu hồi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    private String jti;
+    private String username;
+    private LocalDateTime issuedAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+    private String replacedBy;
+}
@@ -1,6 +1,7 @@
 package com.fpl.edu.shoeStore.auth.handler;
 
 import com.fpl.edu.shoeStore.auth.security.JwtUtil;
+import com.fpl.edu.shoeStore.auth.security.RefreshTokenStore;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,7 @@ import java.io.IOException;
 public class AdminAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
 
     private final JwtUtil jwtUtil;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Override
     public void onAuthenticationSuccess(
@@ -40,8 +42,10 @@ public class AdminAuthenticationSuccessHandler implements AuthenticationSuccessH
         int roleId = extractRoleId(userDetails);
         
         // Generate JWT tokens
-        String accessToken = jwtUtil.generateAccessToken(username, roleId);
-        String refreshToken = jwtUtil.generateRefreshToken(username, roleId);
+        // Đăng nhập thành công nghĩa là tài khoản đang active (CustomUserDetailsService khóa user không active)
+        String accessToken = jwtUtil.generateAccessToken(username, roleId, extractRoleName(userDetails), "ACTIVE");
+        // Phát hành qua RefreshTokenStore (có jti) để rotation / thu hồi / đăng xuất áp dụng cho cả admin
+        String refreshToken = refreshTokenStore.issue(username, roleId);
         
         // Set accessToken in HttpOnly cookie (for security)
         Cookie accessCookie = new Cookie("accessToken", accessToken);
@@ -51,12 +55,12 @@ public class AdminAuthenticationSuccessHandler implements AuthenticationSuccessH
         accessCookie.setMaxAge(7 * 24 * 60 * 60); // 7 days
         response.addCookie(accessCookie);
         
-        // Set refreshToken in HttpOnly cookie
+        // Set refreshToken in HttpOnly cookie (chỉ gửi tới /api/v1/auth: refresh + logout, giống AuthServiceImpl)
         Cookie refreshCookie = new Cookie("refreshToken", refreshToken);
         refreshCookie.setHttpOnly(true);
         refreshCookie.setSecure(false); // Set true in production
-        refreshCookie.setPath("/");
-        refreshCookie.setMaxAge(30 * 24 * 60 * 60); // 30 days
+        refreshCookie.setPath("/api/v1/auth");
+        refreshCookie.setMaxAge(7 * 24 * 60 * 60); // 7 days, bằng hạn của refresh token
         response.addCookie(refreshCookie);
         
         // Log successful login
@@ -66,6 +70,19 @@ public class AdminAuthenticationSuccessHandler implements AuthenticationSuccessH
         response.sendRedirect("/admin");
     }
     
+    /**
+     * Extract role name from UserDetails authorities ("ROLE_ADMIN" -> "ADMIN")
+     */
+    private String extractRoleName(UserDetails userDetails) {
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            String role = authority.getAuthority();
+            if (role.startsWith("ROLE_")) {
+                return role.substring("ROLE_".length());
+            }
+        }
+        return null;
+    }
+
     /**
      * Extract roleId from UserDetails authorities
      * Default to 2 (ADMIN) if "ROLE_ADMIN" is found
@@ -0,0 +1,27 @@
+package com.fpl.edu.shoeStore.auth.mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.fpl.edu.shoeStore.auth.entity.RefreshToken;
+
+@Mapper
+public interface RefreshTokenMapper {
+
+    int insert(RefreshToken refreshToken);
+
+    // Chỉ thu hồi token còn hiệu lực: trả về 0 nếu token đã dùng / đã thu hồi / không tồn tại
+    int revoke(@Param("jti") String jti, @Param("replacedBy") String replacedBy);
+
+    List<String> findActiveJtisByUsername(@Param("username") String username);
+
+    int revokeByUsername(@Param("username") String username);
+
+    // Token bị thu hồi kể từ since (đồng bộ tập thu hồi trong bộ nhớ giữa các instance)
+    List<RefreshToken> findRevokedSince(@Param("since") LocalDateTime since);
+
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -1,6 +1,9 @@
 package com.fpl.edu.shoeStore.auth.mapper;
 
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import com.fpl.edu.shoeStore.user.entity.User;
 
 import org.apache.ibatis.annotations.Mapper;
@@ -21,4 +24,12 @@ public interface UserAuthMapper {
     Integer existsByPhone(@Param("phone") String phone);
     
     int insertUser(User user);
+
+    // Băm lại mật khẩu (đổi cost BCrypt), chỉ ghi nếu hash chưa bị đổi bởi thao tác khác
+    int updatePasswordHash(@Param("username") String username,
+                           @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
+
+    // User bị khóa / xóa mềm kể từ thời điểm since (đồng bộ danh sách thu hồi JWT)
+    List<UserAuth> findUsersDeactivatedSince(@Param("since") LocalDateTime since);
 }
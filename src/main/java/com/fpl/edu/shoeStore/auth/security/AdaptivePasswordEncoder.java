@@ -0,0 +1,125 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fpl.edu.shoeStore.auth.dto.response.PasswordHashStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * BCrypt với cost (strength) cố định theo cấu hình + đo thời gian hash.
+ *
+ * - Cost không thấp hơn MIN_STRENGTH (cấu hình thấp hơn sẽ được nâng lên)
+ * - upgradeEncoding() chỉ trả true khi cost của hash đã lưu thấp hơn cost hiện tại,
+ *   để lần đăng nhập thành công tiếp theo băm lại mật khẩu theo cost mới (không bao giờ hạ cost)
+ * - Định dạng hash giữ nguyên ($2a$NN$...), không thêm tiền tố {id} nên hash cũ vẫn dùng được
+ */
+@Slf4j
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 14;
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAccumulator encodeMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder matchCount = new LongAdder();
+    private final LongAdder matchNanos = new LongAdder();
+    private final LongAccumulator matchMaxNanos = new LongAccumulator(Math::max, 0);
+
+    public AdaptivePasswordEncoder(int strength) {
+        if (strength < MIN_STRENGTH) {
+            log.warn("BCrypt cost {} is below the minimum, using {}", strength, MIN_STRENGTH);
+        }
+        this.strength = Math.max(strength, MIN_STRENGTH);
+        this.delegate = new BCryptPasswordEncoder(this.strength);
+    }
+
+    /**
+     * Tìm cost lớn nhất mà 1 lần hash vẫn không vượt quá targetMs trên máy hiện tại (chỉ để đề xuất cấu hình).
+     * Mỗi lần tăng cost thì thời gian hash tăng gấp đôi nên dừng ngay khi vượt ngưỡng.
+     */
+    public static int calibrate(long targetMs) {
+        new BCryptPasswordEncoder(MIN_STRENGTH).encode("warm-up");
+        int chosen = MIN_STRENGTH;
+        for (int cost = MIN_STRENGTH; cost <= MAX_STRENGTH; cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode("calibration");
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs > targetMs) {
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("BCrypt calibration suggests auth.bcrypt.strength={} (target {} ms per hash)", chosen, targetMs);
+        return chosen;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            record(encodeCount, encodeNanos, encodeMaxNanos, start);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            record(matchCount, matchNanos, matchMaxNanos, start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public PasswordHashStats stats() {
+        return PasswordHashStats.builder()
+                .strength(strength)
+                .encodeCount(encodeCount.sum())
+                .encodeAvgMs(averageMs(encodeNanos, encodeCount))
+                .encodeMaxMs(encodeMaxNanos.get() / 1_000_000.0)
+                .matchCount(matchCount.sum())
+                .matchAvgMs(averageMs(matchNanos, matchCount))
+                .matchMaxMs(matchMaxNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    private static void record(LongAdder count, LongAdder total, LongAccumulator max, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        count.increment();
+        total.add(elapsed);
+        max.accumulate(elapsed);
+    }
+
+    private static double averageMs(LongAdder totalNanos, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (n * 1_000_000.0);
+    }
+}
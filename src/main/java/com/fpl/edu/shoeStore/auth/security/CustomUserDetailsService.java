@@ -6,15 +6,16 @@ import com.fpl.edu.shoeStore.auth.mapper.UserAuthMapper;
 import com.fpl.edu.shoeStore.auth.service.UserAuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    // private final UserAuthMapper userAuthMapper;
+    private final UserAuthMapper userAuthMapper;
     private final UserAuthService userAuthService;
 
     @Override
@@ -38,4 +39,16 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .disabled(isDeleted)
                 .build();
     }
+
+    /**
+     * Đăng nhập form (admin): Spring Security gọi hàm này khi PasswordEncoder.upgradeEncoding() = true
+     * để lưu hash mới theo cost BCrypt hiện tại.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userAuthMapper.updatePasswordHash(user.getUsername(), user.getPassword(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
@@ -2,6 +2,7 @@ package com.fpl.edu.shoeStore.auth.security;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,6 +11,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -23,6 +26,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenPrincipalCache principalCache;
+    private final RevokedUserList revokedUserList;
+
+    // true: dựng Authentication từ claims đã ký (roleName, status), không đọc DB mỗi request
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,10 +43,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         if (StringUtils.hasText(token)) {
             try {
-                if (jwtUtil.isValid(token)) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Parse 1 lần: kiểm tra chữ ký + hạn dùng, token không hợp lệ sẽ ném JwtException
+                Claims claims = jwtUtil.parse(token);
+                // Refresh token chỉ dùng ở /api/v1/auth/refresh, không xác thực request thường
+                UserDetails userDetails = jwtUtil.isRefreshToken(claims)
+                        ? null
+                        : stateless && claims.get(JwtUtil.CLAIM_ROLE_NAME) != null
+                        ? fromClaims(claims)
+                        : principalCache.get(token,
+                                () -> userDetailsService.loadUserByUsername(claims.getSubject()));
 
+                // null = refresh token / token đã bị thu hồi / tài khoản không còn active (chế độ stateless)
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -59,6 +76,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Token cũ (chưa có roleName) vẫn đi đường đọc DB ở trên
+    private UserDetails fromClaims(Claims claims) {
+        String username = claims.getSubject();
+        if (!"ACTIVE".equalsIgnoreCase(claims.get(JwtUtil.CLAIM_STATUS, String.class))
+                || revokedUserList.isRevoked(username, claims.getIssuedAt())) {
+            return null;
+        }
+        String roleName = "ROLE_" + claims.get(JwtUtil.CLAIM_ROLE_NAME, String.class).toUpperCase();
+        return org.springframework.security.core.userdetails.User
+                .withUsername(username)
+                .password("")
+                .authorities(roleName)
+                .build();
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
@@ -2,29 +2,67 @@ package com.fpl.edu.shoeStore.auth.security;
 
 import java.util.Date;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
 
+/**
+ * Key và parser được tạo 1 lần khi khởi động rồi dùng chung (JwtParser / SecretKey đều thread-safe),
+ * không dựng lại parser + decode secret ở mỗi lần ký / kiểm tra token.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    public static final String CLAIM_ROLE_ID = "roleId";
+    public static final String CLAIM_ROLE_NAME = "roleName";
+    public static final String CLAIM_STATUS = "status";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
 
     private final long ACCESS_EXP = 15 * 60 * 1000; // 15 pphuts
     private final long REFRESH_EXP = 7 * 24 * 60 * 60 * 1000; // 7 ngày
 
+    // jwt.secret là chuỗi base64 (giống cách setSigningKey(String) / signWith(alg, String) cũ giải mã)
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret) {
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), "HmacSHA256");
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     public String generateToken(String userName, int roleId, long expiration) {
-        return Jwts.builder()
-                .setSubject(userName)
-                .claim("roleId", roleId)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+        return generateToken(userName, roleId, null, null, expiration);
+    }
+
+    /**
+     * roleName + status giúp JwtAuthFilter (jwt.stateless=true) dựng Authentication mà không cần đọc DB.
+     * Claim null thì không ghi vào token.
+     */
+    public String generateToken(String userName, int roleId, String roleName, String status, long expiration) {
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder()
+                .subject(userName)
+                .claim(CLAIM_ROLE_ID, roleId)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration));
+        if (roleName != null) {
+            builder.claim(CLAIM_ROLE_NAME, roleName);
+        }
+        if (status != null) {
+            builder.claim(CLAIM_STATUS, status);
+        }
+        return builder
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -32,13 +70,53 @@ public class JwtUtil {
         return generateToken(userName, roleId, ACCESS_EXP);
     }
 
-    public String generateRefreshToken(String userName, int roleId) {
-        return generateToken(userName, roleId, REFRESH_EXP);
+    public String generateAccessToken(String userName, int roleId, String roleName, String status) {
+        return generateToken(userName, roleId, roleName, status, ACCESS_EXP);
+    }
+
+    // jti: khóa của token trong RefreshTokenStore (rotation / thu hồi). Chỉ phát hành qua RefreshTokenStore.issue
+    public String generateRefreshToken(String userName, int roleId, String jti) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .id(jti)
+                .subject(userName)
+                .claim(CLAIM_ROLE_ID, roleId)
+                .claim(CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + REFRESH_EXP))
+                .signWith(signingKey, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    // Refresh token sống lâu nhất -> danh sách thu hồi cần giữ ít nhất chừng này
+    public long getMaxTokenLifetimeMs() {
+        return REFRESH_EXP;
+    }
+
+    /**
+     * Kiểm tra chữ ký + hạn dùng và trả về toàn bộ claims trong 1 lần parse.
+     * Cần nhiều thông tin từ token thì gọi hàm này 1 lần thay vì gọi lần lượt các getXxxFromToken.
+     * @throws JwtException nếu token không hợp lệ hoặc đã hết hạn
+     */
+    public Claims parse(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Refresh token không được dùng thay access token (Bearer / cookie accessToken):
+     * có jti, có typ=refresh, hoặc sống lâu hơn access token (refresh token cũ phát hành trước khi có jti)
+     */
+    public boolean isRefreshToken(Claims claims) {
+        if (claims.getId() != null || TOKEN_TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE, String.class))) {
+            return true;
+        }
+        return claims.getIssuedAt() != null && claims.getExpiration() != null
+                && claims.getExpiration().getTime() - claims.getIssuedAt().getTime() > ACCESS_EXP;
     }
 
     public boolean isValid(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).build().parseClaimsJws(token);
+            parse(token);
             return true;
         } catch (JwtException e) {
             return false;
@@ -46,20 +124,10 @@ public class JwtUtil {
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
     }
 
     public int getRoleIdFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("roleId", Integer.class);
+        return parse(token).get(CLAIM_ROLE_ID, Integer.class);
     }
 }
@@ -0,0 +1,182 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fpl.edu.shoeStore.auth.dto.response.LoginRateLimitStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Giới hạn tần suất đăng nhập bằng token bucket theo IP và theo username,
+ * chạy trước mọi truy vấn DB / BCrypt để bot dò mật khẩu bị chặn với chi phí gần như bằng 0.
+ *
+ * - Bucket không lưu theo từng key mà theo "ngăn" (stripe): hash(key) -> 1 ô AtomicLong, bộ nhớ cố định
+ *   2 x stripes x 8 byte dù có bao nhiêu IP / username. Hai key trùng ngăn thì dùng chung bucket (chặt hơn, không lỏng hơn).
+ * - Mỗi ô gói (thời điểm nạp gần nhất, số mili-token) trong 1 long, cập nhật bằng CAS -> không khóa.
+ */
+@Component
+public class LoginRateLimiter {
+
+    // 22 bit thấp: mili-token (tối đa ~4194 token), 42 bit cao: ms kể từ lúc khởi động
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    @Value("${auth.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.login-rate-limit.stripes:65536}")
+    private int stripes;
+
+    @Value("${auth.login-rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${auth.login-rate-limit.ip.refill-per-minute:10}")
+    private int ipRefillPerMinute;
+
+    @Value("${auth.login-rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${auth.login-rate-limit.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    // Chỉ bật khi app chạy sau reverse proxy tin cậy, nếu không client tự đặt header để né giới hạn
+    @Value("${auth.login-rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    private final long baseMillis = System.currentTimeMillis() - 1;
+
+    private Buckets ipBuckets;
+    private Buckets usernameBuckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(stripes, 16) - 1) << 1;
+        ipBuckets = new Buckets(size, ipCapacity, ipRefillPerMinute);
+        usernameBuckets = new Buckets(size, usernameCapacity, usernameRefillPerMinute);
+    }
+
+    /**
+     * Lấy 1 token của IP rồi 1 token của username.
+     * @return 0 nếu được phép đăng nhập, ngược lại số giây nên chờ (dùng cho header Retry-After)
+     */
+    public long acquire(String clientIp, String username) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.currentTimeMillis() - baseMillis;
+
+        long wait = ipBuckets.tryTake(clientIp == null ? "" : clientIp, now);
+        if (wait > 0) {
+            rejectedByIp.increment();
+            return toSeconds(wait);
+        }
+        if (username != null) {
+            wait = usernameBuckets.tryTake(username.trim().toLowerCase(Locale.ROOT), now);
+            if (wait > 0) {
+                rejectedByUsername.increment();
+                return toSeconds(wait);
+            }
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    public String resolveClientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    public LoginRateLimitStats stats() {
+        return LoginRateLimitStats.builder()
+                .enabled(enabled)
+                .stripes(ipBuckets.length())
+                .ipCapacity(ipCapacity)
+                .ipRefillPerMinute(ipRefillPerMinute)
+                .usernameCapacity(usernameCapacity)
+                .usernameRefillPerMinute(usernameRefillPerMinute)
+                .allowed(allowed.sum())
+                .rejectedByIp(rejectedByIp.sum())
+                .rejectedByUsername(rejectedByUsername.sum())
+                .build();
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * Một dãy bucket cố định, ô = 0 nghĩa là chưa dùng (coi như đầy token).
+     */
+    private static final class Buckets {
+        private final AtomicLongArray cells;
+        private final int mask;
+        private final long capacityMilli;
+        private final int refillPerMinute;
+
+        private Buckets(int size, int capacity, int refillPerMinute) {
+            if (capacity <= 0 || capacity * MILLI > TOKEN_MASK) {
+                throw new IllegalArgumentException("Login rate limit capacity must be between 1 and " + TOKEN_MASK / MILLI);
+            }
+            if (refillPerMinute <= 0) {
+                throw new IllegalArgumentException("Login rate limit refill-per-minute must be positive");
+            }
+            this.cells = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.capacityMilli = capacity * MILLI;
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        /**
+         * @return 0 nếu lấy được 1 token, ngược lại số ms đến khi có lại 1 token
+         */
+        private long tryTake(String key, long now) {
+            int index = spread(key.hashCode()) & mask;
+            while (true) {
+                long state = cells.get(index);
+                long last = state >>> TOKEN_BITS;
+                long tokens = state == 0 ? capacityMilli : state & TOKEN_MASK;
+
+                // Nạp thêm theo thời gian trôi qua; chỉ dời mốc thời gian đúng phần đã đổi ra token để không mất phần lẻ
+                long refilled = state == 0 ? 0 : (now - last) * refillPerMinute * MILLI / 60_000;
+                if (refilled > 0) {
+                    tokens = Math.min(capacityMilli, tokens + refilled);
+                    last = tokens == capacityMilli ? now : last + refilled * 60_000 / (refillPerMinute * MILLI);
+                } else if (state == 0) {
+                    last = now;
+                }
+
+                if (tokens < MILLI) {
+                    return (MILLI - tokens) * 60_000 / (refillPerMinute * MILLI) + 1;
+                }
+                if (cells.compareAndSet(index, state, (last << TOKEN_BITS) | (tokens - MILLI))) {
+                    return 0;
+                }
+            }
+        }
+
+        private int length() {
+            return cells.length();
+        }
+
+        private static int spread(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Chạy BCrypt (tốn CPU, ~100ms / lần) trên một pool riêng có giới hạn.
+ *
+ * Khi có đợt đăng nhập dồn dập, tối đa threads lần so khớp chạy song song, queue-capacity lần chờ;
+ * vượt quá thì từ chối ngay (RejectedExecutionException) thay vì chiếm hết thread xử lý request.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+
+    // 0 = số CPU
+    @Value("${auth.password-verifier.threads:0}")
+    private int threads;
+
+    @Value("${auth.password-verifier.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${auth.password-verifier.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * So khớp mật khẩu trên pool BCrypt.
+     * @throws RejectedExecutionException nếu pool đã đầy hoặc chờ quá timeout-ms
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return await(executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Băm mật khẩu trên pool BCrypt (dùng khi băm lại theo cost mới lúc đăng nhập).
+     * @throws RejectedExecutionException nếu pool đã đầy hoặc chờ quá timeout-ms
+     */
+    public String encode(String rawPassword) {
+        return await(executor.submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // Hash lưu trong DB dùng cost khác cost hiện tại -> nên băm lại
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
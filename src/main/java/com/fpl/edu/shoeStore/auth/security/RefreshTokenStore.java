@@ -0,0 +1,215 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fpl.edu.shoeStore.auth.entity.RefreshToken;
+import com.fpl.edu.shoeStore.auth.mapper.RefreshTokenMapper;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Quản lý refresh token theo jti: mỗi lần refresh thì token cũ bị thu hồi và phát hành token mới (rotation).
+ *
+ * - Bảng refresh_tokens là nguồn gốc: đổi token dùng UPDATE ... WHERE revoked_at IS NULL nên mỗi token chỉ đổi được 1 lần
+ * - Tập jti đã thu hồi giữ trong bộ nhớ (UUID -> hạn dùng, ghi sau khi transaction commit):
+ *   token bị dùng lại bị chặn ngay, không cần query
+ * - Token đã đổi mà bị dùng lại (có thể đã bị đánh cắp) -> thu hồi toàn bộ refresh token của user
+ * - Đồng bộ định kỳ jti mới bị thu hồi từ DB (các instance khác), dọn mục đã hết hạn trong bộ nhớ và trong DB
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenStore {
+
+    private final RefreshTokenMapper refreshTokenMapper;
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.refresh.sync-interval-ms:30000}")
+    private long syncIntervalMs;
+
+    @Value("${jwt.refresh.purge-interval-ms:3600000}")
+    private long purgeIntervalMs;
+
+    // jti đã thu hồi -> hạn dùng của token (epoch ms), hết hạn thì token tự bị JwtUtil từ chối nên bỏ khỏi tập
+    private final Map<UUID, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastSync;
+    private ScheduledExecutorService maintainer;
+
+    @PostConstruct
+    public void start() {
+        lastSync = LocalDateTime.now().minusNanos(jwtUtil.getMaxTokenLifetimeMs() * 1_000_000);
+        syncQuietly();
+
+        maintainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintainer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        maintainer.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (maintainer != null) {
+            maintainer.shutdownNow();
+        }
+    }
+
+    /**
+     * Phát hành refresh token mới (đăng nhập) và lưu jti vào DB.
+     */
+    @Transactional
+    public String issue(String username, int roleId) {
+        return issue(username, roleId, UUID.randomUUID());
+    }
+
+    /**
+     * Đổi refresh token (đã kiểm tra chữ ký) lấy token mới, token cũ bị thu hồi.
+     * @return token mới, hoặc null nếu token không có jti / đã dùng / đã thu hồi
+     */
+    @Transactional
+    public String rotate(Claims claims, int roleId) {
+        UUID jti = parseJti(claims.getId());
+        if (jti == null) {
+            return null;
+        }
+        String username = claims.getSubject();
+        if (revoked.containsKey(jti)) {
+            revokeAllForUser(username);
+            return null;
+        }
+
+        UUID next = UUID.randomUUID();
+        if (refreshTokenMapper.revoke(jti.toString(), next.toString()) == 0) {
+            // Token đã được đổi / thu hồi ở instance khác mà chưa đồng bộ về đây
+            markRevoked(jti, claims.getExpiration().getTime());
+            revokeAllForUser(username);
+            return null;
+        }
+        markRevoked(jti, claims.getExpiration().getTime());
+        return issue(username, roleId, next);
+    }
+
+    /**
+     * Thu hồi 1 refresh token (đăng xuất).
+     */
+    public void revoke(Claims claims) {
+        UUID jti = parseJti(claims.getId());
+        if (jti == null) {
+            return;
+        }
+        refreshTokenMapper.revoke(jti.toString(), null);
+        markRevoked(jti, claims.getExpiration().getTime());
+    }
+
+    /**
+     * Thu hồi mọi refresh token còn hiệu lực của user (đổi mật khẩu, khóa, xóa, token bị dùng lại).
+     */
+    public void revokeAllForUser(String username) {
+        if (username == null) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + jwtUtil.getMaxTokenLifetimeMs();
+        for (String jti : refreshTokenMapper.findActiveJtisByUsername(username)) {
+            UUID id = parseJti(jti);
+            if (id != null) {
+                markRevoked(id, expiresAt);
+            }
+        }
+        refreshTokenMapper.revokeByUsername(username);
+    }
+
+    void sync() {
+        // Lùi lại 1 chu kỳ để không sót bản ghi commit trễ so với lúc query
+        LocalDateTime since = lastSync.minusNanos(syncIntervalMs * 1_000_000);
+        LocalDateTime now = LocalDateTime.now();
+        for (RefreshToken token : refreshTokenMapper.findRevokedSince(since)) {
+            UUID id = parseJti(token.getJti());
+            if (id != null) {
+                markRevoked(id, token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        lastSync = now;
+    }
+
+    void purge() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        int deleted = refreshTokenMapper.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(String username, int roleId, UUID jti) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenMapper.insert(RefreshToken.builder()
+                .jti(jti.toString())
+                .username(username)
+                .issuedAt(now)
+                .expiresAt(now.plusNanos(jwtUtil.getMaxTokenLifetimeMs() * 1_000_000))
+                .build());
+        return jwtUtil.generateRefreshToken(username, roleId, jti.toString());
+    }
+
+    // Trong transaction: chỉ ghi vào bộ nhớ sau commit. Nếu rollback (vd insert token mới lỗi) mà jti cũ
+    // đã bị đánh dấu thì lần thử lại của client bị coi là dùng lại token -> thu hồi toàn bộ token của user
+    private void markRevoked(UUID jti, long expiresAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revoked.merge(jti, expiresAt, Math::max);
+                }
+            });
+            return;
+        }
+        revoked.merge(jti, expiresAt, Math::max);
+    }
+
+    private static UUID parseJti(String jti) {
+        if (jti == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Refresh token sync failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.error("Refresh token purge failed, will retry: {}", e.getMessage());
+        }
+    }
+}
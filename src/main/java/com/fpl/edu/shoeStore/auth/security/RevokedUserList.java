@@ -0,0 +1,118 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fpl.edu.shoeStore.auth.entity.UserAuth;
+import com.fpl.edu.shoeStore.auth.mapper.UserAuthMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Danh sách user bị thu hồi token cho chế độ JWT stateless (jwt.stateless=true).
+ *
+ * Token của user phát hành TRƯỚC thời điểm thu hồi bị từ chối (khóa, xóa, đổi quyền, đổi mật khẩu).
+ * - revoke(): ghi nhận ngay trên instance xử lý thay đổi
+ * - Đồng bộ định kỳ từ sys_user (status khác 'active', updated_at mới) để các instance khác cũng biết
+ * - Mục cũ hơn thời gian sống dài nhất của token được dọn đi
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedUserList {
+
+    private final UserAuthMapper userAuthMapper;
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    @Value("${jwt.revocation.sync-interval-ms:30000}")
+    private long syncIntervalMs;
+
+    // username -> thời điểm thu hồi (epoch ms)
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastSync;
+    private ScheduledExecutorService syncer;
+
+    @PostConstruct
+    public void start() {
+        if (!stateless) {
+            return;
+        }
+        // Token sống tối đa getMaxTokenLifetimeMs -> chỉ cần các thay đổi trong khoảng đó
+        lastSync = LocalDateTime.now().minusNanos(jwtUtil.getMaxTokenLifetimeMs() * 1_000_000);
+        syncQuietly();
+
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    public void revoke(String username) {
+        if (username != null) {
+            revokedAt.merge(username, System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    /**
+     * Claim iat của JWT chỉ chính xác tới giây, nên thời điểm thu hồi cũng được làm tròn xuống giây trước khi so sánh.
+     * Hệ quả: token phát hành trong cùng giây với lúc thu hồi (kể cả trước thời điểm thu hồi vài ms) vẫn được chấp nhận;
+     * đổi lại token mới cấp ngay sau khi thu hồi (đăng nhập lại sau đổi mật khẩu) không bị từ chối nhầm.
+     * @return true nếu token (phát hành lúc issuedAt) của user đã bị thu hồi
+     */
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long revokedTime = revokedAt.get(username);
+        if (revokedTime == null) {
+            return false;
+        }
+        long revokedSecond = TimeUnit.MILLISECONDS.toSeconds(revokedTime);
+        return issuedAt == null || TimeUnit.MILLISECONDS.toSeconds(issuedAt.getTime()) < revokedSecond;
+    }
+
+    void sync() {
+        // Lùi lại 1 chu kỳ để không sót bản ghi commit trễ so với lúc query
+        LocalDateTime since = lastSync.minusNanos(syncIntervalMs * 1_000_000);
+        LocalDateTime now = LocalDateTime.now();
+        for (UserAuth user : userAuthMapper.findUsersDeactivatedSince(since)) {
+            LocalDateTime updatedAt = user.getUpdatedAt() != null ? user.getUpdatedAt() : now;
+            revokedAt.merge(user.getUsername(),
+                    updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), Math::max);
+        }
+        lastSync = now;
+
+        long expiredBefore = System.currentTimeMillis() - jwtUtil.getMaxTokenLifetimeMs();
+        revokedAt.values().removeIf(time -> time < expiredBefore);
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("JWT revocation sync failed, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fpl.edu.shoeStore.common.cache.LocalLruCache;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache token -> UserDetails để JwtAuthFilter không phải query DB ở mọi request.
+ *
+ * - Key là SHA-256 của token (không giữ token gốc trong bộ nhớ)
+ * - LocalLruCache: mỗi phần tử sống tối đa ttl-ms, đầy thì bỏ phần tử lâu không dùng nhất (không xóa cả cache)
+ * - Token hết hạn bị JwtUtil từ chối trước khi tới cache, phần tử của nó bị LRU / ttl đẩy ra dần
+ * - evictUser(username) khi trạng thái / quyền / mật khẩu của user thay đổi
+ */
+@Component
+public class TokenPrincipalCache {
+
+    @Value("${jwt.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private LocalLruCache<String, UserDetails> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = new LocalLruCache<>("tokenPrincipal", maxSize, ttlMs);
+    }
+
+    /**
+     * Lấy principal của token, chưa có / hết hạn thì gọi loader (đọc DB) và lưu lại.
+     * Token phải được kiểm tra chữ ký và hạn dùng trước khi gọi hàm này.
+     */
+    public UserDetails get(String token, Supplier<UserDetails> loader) {
+        return principals.get(hash(token), key -> loader.get());
+    }
+
+    /**
+     * Xóa mọi principal đã cache của user (khóa tài khoản, đổi quyền, đổi mật khẩu, xóa user).
+     * Chạy ngay và chạy lại sau commit để request đọc giữa chừng transaction không lưu lại trạng thái cũ.
+     */
+    public void evictUser(String username) {
+        if (username == null) {
+            return;
+        }
+        removeUser(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeUser(username);
+                }
+            });
+        }
+    }
+
+    private void removeUser(String username) {
+        principals.invalidateIf(userDetails -> username.equals(userDetails.getUsername()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
@@ -6,13 +6,13 @@ import org.springframework.http.ResponseEntity;
 
 public interface AuthService {
 
-    ResponseEntity<?> login(LoginRequestDto loginRequestDto);
+    ResponseEntity<?> login(LoginRequestDto loginRequestDto, String clientIp);
 
     ResponseEntity<?> register(RegisterRequestDto registerRequestDto);
 
     ResponseEntity<?> refresh(String token);
 
-    ResponseEntity<?> logout();
+    ResponseEntity<?> logout(String refreshToken);
 
     String getUsernameFromAccessToken(String token);
 }
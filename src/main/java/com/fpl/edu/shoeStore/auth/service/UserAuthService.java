@@ -10,6 +10,13 @@ public interface UserAuthService {
 
     boolean checkLoginByUserNameAndPassword(String userName, String password);
 
+    /**
+     * Đăng nhập: 1 query lấy user + 1 lần so khớp BCrypt (trên pool riêng).
+     * @return user nếu đúng mật khẩu, null nếu sai tài khoản / mật khẩu
+     * @throws java.util.concurrent.RejectedExecutionException nếu pool BCrypt đang quá tải
+     */
+    UserAuthResponseDto authenticate(String userName, String password);
+
     Integer getRoleIdByUserName(String userName);
     
     boolean existsByUsername(String username);
@@ -3,6 +3,7 @@ package com.fpl.edu.shoeStore.auth.service.impl;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -14,37 +15,62 @@ import com.fpl.edu.shoeStore.auth.dto.request.LoginRequestDto;
 import com.fpl.edu.shoeStore.auth.dto.request.RegisterRequestDto;
 import com.fpl.edu.shoeStore.auth.dto.response.UserAuthResponseDto;
 import com.fpl.edu.shoeStore.auth.security.JwtUtil;
+import com.fpl.edu.shoeStore.auth.security.LoginRateLimiter;
+import com.fpl.edu.shoeStore.auth.security.RefreshTokenStore;
 import com.fpl.edu.shoeStore.auth.service.AuthService;
 import com.fpl.edu.shoeStore.auth.service.UserAuthService;
 import com.fpl.edu.shoeStore.common.enums.ErrorCode;
 import com.fpl.edu.shoeStore.common.handler.ApiResponse;
 import com.fpl.edu.shoeStore.user.entity.User;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
+    // refresh + logout đều cần cookie refreshToken
+    private static final String REFRESH_COOKIE_PATH = "/api/v1/auth";
+    private static final String LEGACY_REFRESH_COOKIE_PATH = "/api/v1/auth/refresh";
+
     private final JwtUtil jwtUtil;
+    private final RefreshTokenStore refreshTokenStore;
     private final UserAuthService userAuthService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Override
-    public ResponseEntity<?> login(LoginRequestDto req) {
+    public ResponseEntity<?> login(LoginRequestDto req, String clientIp) {
         String username = req.getUsername();
         String password = req.getPassword();
 
-        if (!userAuthService.checkLoginByUserNameAndPassword(username, password)) {
+        // Chặn dò mật khẩu trước khi đụng tới DB / BCrypt
+        long retryAfterSeconds = loginRateLimiter.acquire(clientIp, username);
+        if (retryAfterSeconds > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(errorBody(HttpStatus.TOO_MANY_REQUESTS, ErrorCode.TOO_MANY_LOGIN_ATTEMPTS));
+        }
+
+        // Lấy user 1 lần, so khớp 1 lần, dùng lại kết quả cho token và response
+        UserAuthResponseDto loggedUser;
+        try {
+            loggedUser = userAuthService.authenticate(username, password);
+        } catch (RejectedExecutionException e) {
+            return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.LOGIN_BUSY);
+        }
+        if (loggedUser == null) {
             return buildErrorResponse(HttpStatus.UNAUTHORIZED, ErrorCode.INVALID_CREDENTIALS);
         }
 
-        Integer roleId = userAuthService.getRoleIdByUserName(username);
-        if (roleId == null) {
+        if (!"active".equalsIgnoreCase(loggedUser.getStatus())) {
             return buildErrorResponse(HttpStatus.LOCKED, ErrorCode.ACCOUNT_LOCKED);
         }
+        int roleId = loggedUser.getRoleId();
 
-        String accessToken = jwtUtil.generateAccessToken(username, roleId);
-        String refreshToken = jwtUtil.generateRefreshToken(username, roleId);
-        UserAuthResponseDto loggedUser = userAuthService.findUserByUserName(username);
+        // roleName + status trong token: JwtAuthFilter ở chế độ stateless không cần đọc DB
+        String accessToken = jwtUtil.generateAccessToken(username, roleId, loggedUser.getRoleName(), loggedUser.getStatus());
+        String refreshToken = refreshTokenStore.issue(username, roleId);
 
         //trả về dữ liệu với accessToken, refreshToken, user info
         Map<String, Object> data = new HashMap<>();
@@ -64,6 +90,7 @@ public class AuthServiceImpl implements AuthService {
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, clearLegacyRefreshTokenCookie().toString())
                 .body(apiResponse);
     }
 
@@ -99,16 +126,33 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public ResponseEntity<?> refresh(String token) {
-        if (token == null || !jwtUtil.isValid(token)) {
+        if (token == null) {
             return buildErrorResponse(HttpStatus.UNAUTHORIZED, ErrorCode.INVALID_REFRESH_TOKEN);
         }
+        Claims claims;
+        try {
+            claims = jwtUtil.parse(token);
+        } catch (JwtException e) {
+            return buildErrorResponse(HttpStatus.UNAUTHORIZED, ErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        String username = claims.getSubject();
+
+        // Refresh là lúc đọc lại quyền / trạng thái từ DB (access token mới mang claims mới nhất)
+        UserAuthResponseDto user = userAuthService.findUserByUserName(username);
+        if (user == null || !"ACTIVE".equalsIgnoreCase(user.getStatus())) {
+            return buildErrorResponse(HttpStatus.LOCKED, ErrorCode.ACCOUNT_LOCKED);
+        }
 
-        String username = jwtUtil.getUsernameFromToken(token);
-        int roleId = jwtUtil.getRoleIdFromToken(token);
-        String newAccessToken = jwtUtil.generateAccessToken(username, roleId);
+        // Mỗi refresh token chỉ dùng được 1 lần: thu hồi token cũ, cấp token mới
+        String newRefreshToken = refreshTokenStore.rotate(claims, user.getRoleId());
+        if (newRefreshToken == null) {
+            return buildErrorResponse(HttpStatus.UNAUTHORIZED, ErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        String newAccessToken = jwtUtil.generateAccessToken(username, user.getRoleId(), user.getRoleName(), user.getStatus());
 
         Map<String, String> data = new HashMap<>();
         data.put("accessToken", newAccessToken);
+        data.put("refreshToken", newRefreshToken);
         
         ApiResponse<Map<String, String>> apiResponse = ApiResponse.<Map<String, String>>builder()
                 .success(true)
@@ -117,14 +161,23 @@ public class AuthServiceImpl implements AuthService {
                 .data(data)
                 .build();
 
-        return ResponseEntity.ok(apiResponse);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, createRefreshTokenCookie(newRefreshToken).toString())
+                .body(apiResponse);
     }
 
     @Override
-    public ResponseEntity<?> logout() {
+    public ResponseEntity<?> logout(String refreshToken) {
+        if (refreshToken != null) {
+            try {
+                refreshTokenStore.revoke(jwtUtil.parse(refreshToken));
+            } catch (JwtException e) {
+                // Token hỏng / hết hạn: không còn dùng được, chỉ cần xóa cookie
+            }
+        }
         ResponseCookie cookie = ResponseCookie.from("refreshToken", "")
                 .httpOnly(true)
-                .path("/api/v1/auth/refresh")
+                .path(REFRESH_COOKIE_PATH)
                 .maxAge(0)
                 .build();
 
@@ -137,6 +190,7 @@ public class AuthServiceImpl implements AuthService {
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, clearLegacyRefreshTokenCookie().toString())
                 .body(apiResponse);
     }
 
@@ -146,21 +200,32 @@ public class AuthServiceImpl implements AuthService {
     }
 
     private ResponseEntity<?> buildErrorResponse(HttpStatus status, ErrorCode errorCode) {
-        ApiResponse<Object> apiResponse = ApiResponse.builder()
+        return ResponseEntity.status(status).body(errorBody(status, errorCode));
+    }
+
+    private ApiResponse<Object> errorBody(HttpStatus status, ErrorCode errorCode) {
+        return ApiResponse.builder()
                 .success(false)
                 .statusCode(status.value())
                 .message(errorCode.getMessage())
                 .data(null)
                 .build();
-        
-        return ResponseEntity.status(status).body(apiResponse);
     }
 
     private ResponseCookie createRefreshTokenCookie(String refreshToken) {
         return ResponseCookie.from("refreshToken", refreshToken)
                 .httpOnly(true)
-                .path("/api/v1/auth/refresh")
+                .path(REFRESH_COOKIE_PATH)
                 .maxAge(Duration.ofDays(7))
                 .build();
     }
+
+    // Cookie cũ chỉ gửi tới /refresh (logout không đọc được để thu hồi) -> xóa đi
+    private ResponseCookie clearLegacyRefreshTokenCookie() {
+        return ResponseCookie.from("refreshToken", "")
+                .httpOnly(true)
+                .path(LEGACY_REFRESH_COOKIE_PATH)
+                .maxAge(0)
+                .build();
+    }
 }
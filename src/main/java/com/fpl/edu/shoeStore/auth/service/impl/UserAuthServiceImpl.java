@@ -4,20 +4,26 @@ import com.fpl.edu.shoeStore.auth.converter.UserAuthConverter;
 import com.fpl.edu.shoeStore.auth.dto.request.RegisterRequestDto;
 import com.fpl.edu.shoeStore.auth.dto.response.UserAuthResponseDto;
 import com.fpl.edu.shoeStore.auth.mapper.UserAuthMapper;
+import com.fpl.edu.shoeStore.auth.security.PasswordVerifier;
 import com.fpl.edu.shoeStore.auth.service.UserAuthService;
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.user.entity.User;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserAuthServiceImpl implements UserAuthService {
 
     private final UserAuthMapper userAuthMapper;
     private final PasswordEncoder passwordEncoder;
+    private final CountCache countCache;
+    private final PasswordVerifier passwordVerifier;
 
     @Override
     public UserAuthResponseDto findUserByUserName(String userName) {
@@ -27,13 +33,34 @@ public class UserAuthServiceImpl implements UserAuthService {
 
     @Override
     public boolean checkLoginByUserNameAndPassword(String userName, String password) {
+        return authenticate(userName, password) != null;
+    }
+
+    @Override
+    public UserAuthResponseDto authenticate(String userName, String password) {
         UserAuthResponseDto userAuthResponseDto = UserAuthConverter.toDto(userAuthMapper.findUserByUsername(userName));
         if (userAuthResponseDto == null) {
-            return false;
+            return null;
+        }
+        if (!passwordVerifier.matches(password, userAuthResponseDto.getPasswordHash())) {
+            return null;
+        }
+        if (passwordVerifier.needsRehash(userAuthResponseDto.getPasswordHash())) {
+            rehash(userAuthResponseDto, password);
+        }
+        return userAuthResponseDto;
+    }
+
+    // Băm lại theo cost BCrypt hiện tại; lỗi ở đây không được làm hỏng lần đăng nhập
+    private void rehash(UserAuthResponseDto user, String rawPassword) {
+        try {
+            String newHash = passwordVerifier.encode(rawPassword);
+            if (userAuthMapper.updatePasswordHash(user.getUsername(), user.getPasswordHash(), newHash) > 0) {
+                user.setPasswordHash(newHash);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Password rehash skipped for user {}: {}", user.getUsername(), e.getMessage());
         }
-        
-        String storedPassword = userAuthMapper.findUserByUsername(userName).getPasswordHash();
-        return passwordEncoder.matches(password, storedPassword);
     }
 
     @Override
@@ -74,6 +101,7 @@ public class UserAuthServiceImpl implements UserAuthService {
                 .build();
         
         userAuthMapper.insertUser(user);
+        countCache.invalidate(CountCache.USERS);
         return user;
     }
 }
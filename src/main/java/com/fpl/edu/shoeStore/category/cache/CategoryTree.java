@@ -0,0 +1,166 @@
+package com.fpl.edu.shoeStore.category.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fpl.edu.shoeStore.category.converter.CategoryConverter;
+import com.fpl.edu.shoeStore.category.dto.response.CategoryDtoResponse;
+import com.fpl.edu.shoeStore.category.entity.Category;
+
+/**
+ * Ảnh chụp (snapshot) bất biến của cây danh mục: cha / con, số sản phẩm, đường dẫn tổ tiên.
+ *
+ * Dựng một lần từ toàn bộ bảng categories + số sản phẩm theo danh mục, sau đó chỉ đọc
+ * nên dùng chung cho mọi thread không cần khóa. Các DTO trả ra là dùng chung, không được sửa.
+ */
+public final class CategoryTree {
+
+    // Giống ORDER BY sort_order ASC, name ASC (MariaDB: NULL đứng đầu khi ASC)
+    private static final Comparator<CategoryDtoResponse> DISPLAY_ORDER = Comparator
+            .comparing(CategoryDtoResponse::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(CategoryDtoResponse::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+
+    private static final Comparator<CategoryDtoResponse> NAME_ORDER = Comparator
+            .comparing(CategoryDtoResponse::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+
+    private final Map<Integer, CategoryDtoResponse> byId;
+    private final Map<Integer, List<Integer>> childIds;
+    private final Map<Integer, List<Integer>> subtreeIds;
+    private final List<CategoryDtoResponse> ordered;
+    private final List<CategoryDtoResponse> activeByName;
+
+    private CategoryTree(Map<Integer, CategoryDtoResponse> byId, Map<Integer, List<Integer>> childIds,
+                         Map<Integer, List<Integer>> subtreeIds,
+                         List<CategoryDtoResponse> ordered, List<CategoryDtoResponse> activeByName) {
+        this.byId = byId;
+        this.childIds = childIds;
+        this.subtreeIds = subtreeIds;
+        this.ordered = ordered;
+        this.activeByName = activeByName;
+    }
+
+    /**
+     * @param productCounts category_id -> số sản phẩm (danh mục không có sản phẩm thì không cần có mặt)
+     */
+    public static CategoryTree build(List<Category> categories, Map<Integer, Integer> productCounts) {
+        Map<Integer, Category> entities = new HashMap<>();
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        for (Category category : categories) {
+            entities.put(category.getCategoryId(), category);
+        }
+        for (Category category : categories) {
+            if (category.getParentId() != null) {
+                children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category.getCategoryId());
+            }
+        }
+
+        Map<Integer, CategoryDtoResponse> byId = new HashMap<>();
+        for (Category category : categories) {
+            CategoryDtoResponse dto = CategoryConverter.toResponse(category);
+            Category parent = category.getParentId() != null ? entities.get(category.getParentId()) : null;
+            dto.setParentName(parent != null ? parent.getName() : null);
+            dto.setProductCount(productCounts.getOrDefault(category.getCategoryId(), 0));
+            dto.setChildCount(children.getOrDefault(category.getCategoryId(), List.of()).size());
+
+            List<Integer> ancestorIds = ancestorIds(category, entities);
+            dto.setAncestorIds(ancestorIds);
+            List<String> names = new ArrayList<>();
+            ancestorIds.forEach(id -> names.add(entities.get(id).getName()));
+            names.add(category.getName());
+            dto.setPath(String.join(" > ", names));
+            byId.put(category.getCategoryId(), dto);
+        }
+
+        Map<Integer, List<Integer>> childIds = new HashMap<>();
+        children.forEach((parentId, ids) -> childIds.put(parentId, List.copyOf(ids)));
+
+        // Bảng closure: mỗi danh mục -> chính nó + mọi danh mục con cháu
+        Map<Integer, List<Integer>> subtreeIds = new HashMap<>();
+        for (Integer categoryId : byId.keySet()) {
+            subtreeIds.put(categoryId, List.copyOf(descendantIds(categoryId, childIds)));
+        }
+
+        List<CategoryDtoResponse> ordered = new ArrayList<>(byId.values());
+        ordered.sort(DISPLAY_ORDER);
+        List<CategoryDtoResponse> activeByName = ordered.stream()
+                .filter(dto -> Boolean.TRUE.equals(dto.getIsActive()))
+                .sorted(NAME_ORDER)
+                .collect(Collectors.toList());
+
+        return new CategoryTree(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(childIds),
+                Collections.unmodifiableMap(subtreeIds), List.copyOf(ordered), List.copyOf(activeByName));
+    }
+
+    public CategoryDtoResponse get(Integer categoryId) {
+        return byId.get(categoryId);
+    }
+
+    public List<Integer> getChildIds(Integer categoryId) {
+        return childIds.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * Id của danh mục và toàn bộ con cháu (gồm cả danh mục con đã ẩn), dùng cho lọc sản phẩm theo cây.
+     * Id không có trong cây thì trả về chính nó.
+     */
+    public List<Integer> getSubtreeIds(Integer categoryId) {
+        return subtreeIds.getOrDefault(categoryId, List.of(categoryId));
+    }
+
+    /**
+     * Danh mục đang hoạt động, sắp xếp theo tên (dropdown).
+     */
+    public List<CategoryDtoResponse> getActive() {
+        return activeByName;
+    }
+
+    /**
+     * Lọc giống CategoryMapper.findAllPaged: search = tên chứa chuỗi (không phân biệt hoa thường), isActive,
+     * sắp xếp theo sort_order, name.
+     */
+    public List<CategoryDtoResponse> filter(String search, Boolean isActive) {
+        String keyword = search != null && !search.isEmpty() ? search.toLowerCase(Locale.ROOT) : null;
+        return ordered.stream()
+                .filter(dto -> isActive == null || isActive.equals(dto.getIsActive()))
+                .filter(dto -> keyword == null
+                        || (dto.getName() != null && dto.getName().toLowerCase(Locale.ROOT).contains(keyword)))
+                .collect(Collectors.toList());
+    }
+
+    // Duyệt theo chiều rộng từ categoryId; Set chặn lặp vô hạn nếu dữ liệu có vòng cha-con
+    private static Set<Integer> descendantIds(Integer categoryId, Map<Integer, List<Integer>> childIds) {
+        Set<Integer> visited = new LinkedHashSet<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(categoryId);
+        while (!queue.isEmpty()) {
+            Integer id = queue.poll();
+            if (visited.add(id)) {
+                queue.addAll(childIds.getOrDefault(id, List.of()));
+            }
+        }
+        return visited;
+    }
+
+    // Từ gốc xuống cha trực tiếp; dữ liệu lỗi có vòng cha-con thì dừng ở chỗ lặp
+    private static List<Integer> ancestorIds(Category category, Map<Integer, Category> entities) {
+        Set<Integer> chain = new LinkedHashSet<>();
+        Integer parentId = category.getParentId();
+        while (parentId != null && !parentId.equals(category.getCategoryId())
+                && entities.containsKey(parentId) && chain.add(parentId)) {
+            parentId = entities.get(parentId).getParentId();
+        }
+        List<Integer> ancestors = new ArrayList<>(chain);
+        Collections.reverse(ancestors);
+        return List.copyOf(ancestors);
+    }
+}
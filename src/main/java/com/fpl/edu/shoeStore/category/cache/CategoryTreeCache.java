@@ -0,0 +1,70 @@
+package com.fpl.edu.shoeStore.category.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fpl.edu.shoeStore.category.dto.response.CategoryDtoResponse;
+import com.fpl.edu.shoeStore.category.mapper.CategoryMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Giữ CategoryTree hiện hành (copy-on-write): người đọc luôn thấy một cây hoàn chỉnh, không khóa;
+ * ghi vào categories / products thì gọi invalidate(), lần đọc sau dựng cây mới (2 query) rồi thay tham chiếu.
+ *
+ * invalidate chạy ngay và chạy lại sau commit; cây dựng trong lúc có invalidate xen vào thì không được giữ lại.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache {
+
+    private final CategoryMapper categoryMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CategoryTree tree;
+
+    public CategoryTree get() {
+        CategoryTree current = tree;
+        return current != null ? current : rebuild();
+    }
+
+    public void invalidate() {
+        evict();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict();
+                }
+            });
+        }
+    }
+
+    // Nhiều request cùng thấy cây trống thì chỉ một request dựng, các request khác dùng lại kết quả
+    private synchronized CategoryTree rebuild() {
+        CategoryTree current = tree;
+        if (current != null) {
+            return current;
+        }
+        long startGeneration = generation.get();
+        Map<Integer, Integer> productCounts = new HashMap<>();
+        List<CategoryDtoResponse> counts = categoryMapper.countProductsPerCategory();
+        counts.forEach(row -> productCounts.put(row.getCategoryId(), row.getProductCount()));
+        CategoryTree built = CategoryTree.build(categoryMapper.findAll(), productCounts);
+        if (generation.get() == startGeneration) {
+            tree = built;
+        }
+        return built;
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        tree = null;
+    }
+}
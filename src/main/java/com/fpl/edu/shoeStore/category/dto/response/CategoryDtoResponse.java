@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -29,4 +30,10 @@ public class CategoryDtoResponse {
     
     // Số lượng subcategories (optional)
     private Integer childCount;
+
+    // Id các danh mục tổ tiên, từ gốc xuống cha trực tiếp (từ cây danh mục trong bộ nhớ)
+    private List<Integer> ancestorIds;
+
+    // Đường dẫn hiển thị, vd "Nam > Giày thể thao > Chạy bộ"
+    private String path;
 }
@@ -80,6 +80,12 @@ public interface CategoryMapper {
      */
     List<Category> findAllActive();
     
+    /**
+     * Số sản phẩm theo từng category (1 query GROUP BY, dựng cây danh mục trong bộ nhớ)
+     * @return categoryId + productCount, category không có sản phẩm thì không có dòng
+     */
+    List<CategoryDtoResponse> countProductsPerCategory();
+    
     // ==================== VALIDATION QUERIES ====================
     
     /**
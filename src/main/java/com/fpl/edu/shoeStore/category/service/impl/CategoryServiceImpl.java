@@ -1,6 +1,7 @@
 package com.fpl.edu.shoeStore.category.service.impl;
 
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
+import com.fpl.edu.shoeStore.category.cache.CategoryTreeCache;
 import com.fpl.edu.shoeStore.category.converter.CategoryConverter;
 import com.fpl.edu.shoeStore.category.dto.request.CategoryDtoRequest;
 import com.fpl.edu.shoeStore.category.dto.response.CategoryDtoResponse;
@@ -21,6 +22,7 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryMapper categoryMapper;
+    private final CategoryTreeCache categoryTreeCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -37,12 +39,13 @@ public class CategoryServiceImpl implements CategoryService {
 
         int offset = (page - 1) * size;
 
-        // Query database
-        List<CategoryDtoResponse> content = categoryMapper.findAllPaged(
-            search, isActive, offset, size
-        );
+        // Lọc + phân trang trên cây danh mục trong bộ nhớ (đã có sẵn productCount / childCount)
+        List<CategoryDtoResponse> matched = categoryTreeCache.get().filter(search, isActive);
+        List<CategoryDtoResponse> content = offset < matched.size()
+                ? List.copyOf(matched.subList(offset, Math.min(offset + size, matched.size())))
+                : List.of();
 
-        long totalElements = categoryMapper.countAll(search, isActive);
+        long totalElements = matched.size();
         int totalPages = (int) Math.ceil((double) totalElements / size);
 
         return PageResponse.<CategoryDtoResponse>builder()
@@ -57,8 +60,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional(readOnly = true)
     public List<CategoryDtoResponse> findAllActive() {
-        List<Category> categories = categoryMapper.findAllActive();
-        return CategoryConverter.toResponseList(categories);
+        return categoryTreeCache.get().getActive();
     }
 
     @Override
@@ -100,6 +102,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new RuntimeException("Tạo danh mục thất bại");
         }
 
+        categoryTreeCache.invalidate();
         log.info("Created category: {} with ID: {}", category.getName(), category.getCategoryId());
         return CategoryConverter.toResponse(category);
     }
@@ -147,6 +150,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new RuntimeException("Cập nhật danh mục thất bại");
         }
 
+        categoryTreeCache.invalidate();
         log.info("Updated category ID: {}", id);
         return CategoryConverter.toResponse(existing);
     }
@@ -183,6 +187,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new RuntimeException("Xóa danh mục thất bại");
         }
 
+        categoryTreeCache.invalidate();
         log.info("Soft deleted category ID: {}", id);
     }
 }
@@ -0,0 +1,23 @@
+package com.fpl.edu.shoeStore.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Số liệu của một CacheStore (cộng dồn từ lúc khởi động).
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+    private String name;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long size;
+    private long maxSize;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fpl.edu.shoeStore.common.cache;
+
+import java.util.function.Function;
+
+/**
+ * Cache đọc xuyên (read-through) có thể thay thế: mặc định dùng LocalLruCache trong bộ nhớ,
+ * có thể khai báo bean khác (Redis, ...) cùng tên để thay mà không sửa service.
+ */
+public interface CacheStore<K, V> {
+
+    /**
+     * Lấy giá trị trong cache, chưa có / hết hạn thì gọi loader và lưu lại.
+     * Loader trả về null thì không cache (lần sau sẽ gọi lại loader).
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    CacheStats stats();
+}
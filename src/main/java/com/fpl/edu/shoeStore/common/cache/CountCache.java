@@ -0,0 +1,125 @@
+package com.fpl.edu.shoeStore.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache kết quả COUNT(*) cho các màn hình phân trang, key = (bảng, bộ filter).
+ *
+ * - Mỗi giá trị sống tối đa ttl-ms, ghi vào bảng nào thì gọi invalidate(bảng) để xóa toàn bộ count của bảng đó
+ * - invalidate chạy ngay và chạy lại sau commit, để count đọc giữa chừng transaction không bị giữ lại
+ * - Mỗi bảng có một "thế hệ" (generation): count tính xong mà bảng đã bị invalidate thì không lưu vào cache
+ */
+@Component
+public class CountCache {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+    public static final String PAYMENTS = "payments";
+    public static final String VOUCHERS = "vouchers";
+    public static final String ORDERS = "orders";
+    public static final String VARIANTS = "product_variants";
+
+    @Value("${paging.count-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${paging.count-cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Lấy count từ cache, hết hạn hoặc chưa có thì gọi counter (câu COUNT thật) và lưu lại.
+     */
+    public long count(String table, LongSupplier counter, Object... filters) {
+        List<Object> key = key(table, filters);
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+
+        long generation = generation(table).get();
+        long value = counter.getAsLong();
+        if (generation(table).get() == generation) {
+            evictIfFull(now);
+            entries.put(key, new Entry(value, now + ttlMs));
+        }
+        return value;
+    }
+
+    /**
+     * Ước lượng tổng số dòng mà không chạy COUNT: dùng count trong cache nếu còn hạn,
+     * không thì lấy cận dưới offset + số dòng vừa đọc (trang được đọc dư 1 dòng -> còn trang sau thì tổng > offset + size).
+     */
+    public long estimate(String table, int offset, int fetched, Object... filters) {
+        Entry cached = entries.get(key(table, filters));
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.value;
+        }
+        return (long) Math.max(offset, 0) + fetched;
+    }
+
+    /**
+     * Xóa mọi count đã cache của bảng, gọi sau mỗi lần insert/update/delete bảng đó.
+     */
+    public void invalidate(String table) {
+        evict(table);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(table);
+                }
+            });
+        }
+    }
+
+    private void evict(String table) {
+        generation(table).incrementAndGet();
+        entries.keySet().removeIf(key -> table.equals(key.get(0)));
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    // Dùng ArrayList vì filter có thể null (List.of không nhận null)
+    private static List<Object> key(String table, Object... filters) {
+        List<Object> key = new ArrayList<>(filters.length + 1);
+        key.add(table);
+        Collections.addAll(key, filters);
+        return key;
+    }
+
+    private static final class Entry {
+        private final long value;
+        private final long expiresAt;
+
+        private Entry(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
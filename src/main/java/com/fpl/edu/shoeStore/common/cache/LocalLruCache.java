@@ -0,0 +1,118 @@
+package com.fpl.edu.shoeStore.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * CacheStore trong bộ nhớ: LRU giới hạn maxSize phần tử, mỗi phần tử sống tối đa ttlMs.
+ *
+ * - Loader chạy ngoài khóa (không chặn các key khác khi đọc DB)
+ * - invalidate tăng "thế hệ": giá trị load trước khi invalidate sẽ không được lưu vào cache
+ */
+public class LocalLruCache<K, V> implements CacheStore<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMs;
+
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalLruCache(String name, int maxSize, long ttlMs) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        // accessOrder = true: LinkedHashMap tự sắp theo lần truy cập gần nhất -> phần tử đầu là LRU
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LocalLruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (generation.get() == loadGeneration) {
+                    entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMs));
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Xóa mọi phần tử có giá trị thỏa predicate (vd mọi principal của 1 user).
+     * Duyệt toàn bộ cache, chỉ dùng cho thao tác hiếm.
+     */
+    public void invalidateIf(Predicate<? super V> predicate) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> predicate.test(entry.value));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(name, hits.sum(), misses.sum(), evictions.sum(), size, maxSize);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
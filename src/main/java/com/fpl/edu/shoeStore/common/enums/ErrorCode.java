@@ -25,6 +25,8 @@ public enum ErrorCode {
     GET_ACCOUNT_SUCCESS("AUTH_010", "Lấy account username thành công"),
     ACCOUNT_LOCKED("AUTH_011", "Tài khoản đã bị khóa, vui lòng liên hệ quản trị viên!"),
     ACCOUNT_DELETED("AUTH_012", "Tài khoản đã bị xóa!"),
+    LOGIN_BUSY("AUTH_013", "Hệ thống đang bận xử lý đăng nhập, vui lòng thử lại sau"),
+    TOO_MANY_LOGIN_ATTEMPTS("AUTH_014", "Đăng nhập quá nhiều lần, vui lòng thử lại sau"),
     
     // ===== USER =====
     NOT_FOUND_USER("USER_001", "Không tìm thấy user"),
@@ -17,4 +17,8 @@ public class PageResponse<T> {
     private int pageSize;
     private long totalElements;
     private int totalPages;
+    // Cursor cho trang tiếp theo (keyset pagination), null nếu đã hết dữ liệu
+    private String nextCursor;
+    // true nếu totalElements là ước lượng (không chạy COUNT), có thể nhỏ hơn tổng thật
+    private boolean approximateTotal;
 }
@@ -163,13 +163,16 @@ public class OrderController {
     /**
      * ADMIN: Lấy danh sách tất cả đơn hàng
      * GET /api/v1/admin/orders?status=PENDING&page=1&size=20
+     * Keyset: GET /api/v1/admin/orders?status=PENDING&after={nextCursor}&size=20
      */
     @GetMapping("/admin/orders")
     public ApiResponse<PageResponse<OrderResponse>> getAllOrdersForAdmin(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String searchTerm,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
         try {
             // Validate page and size
@@ -177,9 +180,10 @@ public class OrderController {
             if (size <= 0) size = 20;
             if (size > 100) size = 100;
 
-            PageResponse<OrderResponse> pageResponse = orderService.getAllOrdersForAdmin(
-                    status, searchTerm, page, size
-            );
+            // Có cursor -> keyset pagination, không thì phân trang theo page/size như cũ
+            PageResponse<OrderResponse> pageResponse = after != null
+                    ? orderService.getAllOrdersAfter(status, searchTerm, after, size)
+                    : orderService.getAllOrdersForAdmin(status, searchTerm, page, size, approximateTotal);
 
             return ApiResponse.<PageResponse<OrderResponse>>builder()
                     .success(true)
@@ -188,6 +192,14 @@ public class OrderController {
                     .data(pageResponse)
                     .build();
 
+        } catch (OrderException e) {
+            return ApiResponse.<PageResponse<OrderResponse>>builder()
+                    .success(false)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .data(null)
+                    .build();
+
         } catch (Exception e) {
             return ApiResponse.<PageResponse<OrderResponse>>builder()
                     .success(false)
@@ -2,12 +2,14 @@ package com.fpl.edu.shoeStore.order.converter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
 import com.fpl.edu.shoeStore.order.dto.request.OrderCreateRequest;
 import com.fpl.edu.shoeStore.order.dto.request.OrderItemRequest;
+import com.fpl.edu.shoeStore.order.dto.request.OrderSearchCriteria;
 import com.fpl.edu.shoeStore.order.dto.response.OrderItemResponse;
 import com.fpl.edu.shoeStore.order.dto.response.OrderResponse;
 import com.fpl.edu.shoeStore.order.entity.Order;
@@ -43,6 +45,12 @@ public class OrderConverter {
         return response;
     }
 
+    public List<OrderResponse> toResponseList(List<Order> orders, Map<Integer, List<OrderItem>> itemsByOrderId) {
+        return orders.stream()
+                .map(order -> toResponse(order, itemsByOrderId.getOrDefault(order.getOrderId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
     public OrderItemResponse toItemResponse(OrderItem item) {
         OrderItemResponse response = new OrderItemResponse();
         response.setOrderItemId(item.getOrderItemId());
@@ -67,6 +75,7 @@ public class OrderConverter {
 
         order.setShippingFullname(request.getShippingFullname());
         order.setShippingPhone(request.getShippingPhone());
+        order.setShippingPhoneNormalized(OrderSearchCriteria.normalizePhone(request.getShippingPhone()));
         order.setShippingAddress(request.getShippingAddress());
         order.setShippingCity(request.getShippingCity());
         order.setShippingCountry(request.getShippingCountry());
@@ -1,8 +1,9 @@
 package com.fpl.edu.shoeStore.order.dto.request;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -29,7 +30,9 @@ public class OrderCreateRequest {
     private String shippingCountry;
     private String note;
 
-    @Size(min = 1, message = "Order must contain at least one item")
+    // @Valid: kiểm tra cả từng dòng (variantId, quantity >= 1), không chỉ danh sách
+    @Valid
+    @NotEmpty(message = "Order must contain at least one item")
     private List<OrderItemRequest> items;
 
     // Phí vận chuyển và các trường tiền tệ (được tính toán hoặc cung cấp)
@@ -0,0 +1,96 @@
+package com.fpl.edu.shoeStore.order.dto.request;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+/**
+ * Từ khóa tìm kiếm đơn hàng (Admin) đã được phân loại để truy vấn dùng được index khi có thể:
+ *
+ * - Chuỗi số (vd "1024", "#1024", "0912 345 678", "+33 6 12"): tra order_id chính xác + tiền tố
+ *   shipping_phone_normalized (cột riêng, chuẩn hóa bằng {@link #normalizePhone(String)} giống từ khóa)
+ *   + đuôi số điện thoại (từ {@value #MIN_PHONE_SUFFIX_DIGITS} chữ số, qua cột đảo ngược shipping_phone_reversed)
+ * - Chuỗi chữ: tìm theo shipping_fullname bằng FULLTEXT (order.search.full-text=true, dùng index)
+ *   hoặc LIKE '%...%' (mặc định, khớp ở bất kỳ vị trí nào trong tên như trước, nhưng quét bảng)
+ */
+@Getter
+public class OrderSearchCriteria {
+
+    // order_id kiểu INT: chuỗi số dài hơn 9 chữ số chắc chắn là số điện thoại
+    private static final int MAX_ORDER_ID_DIGITS = 9;
+    // Tìm theo đuôi ngắn hơn thì khớp quá nhiều đơn
+    private static final int MIN_PHONE_SUFFIX_DIGITS = 4;
+
+    private Integer orderId;
+    private String phonePrefix;
+    private String reversedPhoneSuffix;
+    private String nameContains;
+    private String fullTextQuery;
+    private boolean fullText;
+
+    private OrderSearchCriteria() {
+    }
+
+    /**
+     * @return null nếu không có từ khóa (không lọc)
+     */
+    public static OrderSearchCriteria of(String searchTerm, boolean fullText) {
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return null;
+        }
+        String term = searchTerm.trim();
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+
+        // "#1024" / "1024": có thể là mã đơn
+        String id = term.startsWith("#") ? term.substring(1) : term;
+        if (!id.isEmpty() && id.length() <= MAX_ORDER_ID_DIGITS && id.chars().allMatch(Character::isDigit)) {
+            criteria.orderId = Integer.valueOf(id);
+        }
+
+        String phone = normalizePhone(id);
+        if (!phone.isEmpty() && phone.chars().allMatch(Character::isDigit)) {
+            criteria.phonePrefix = phone;
+            // "+84 912..." chắc chắn là đầu số, chỉ tìm theo tiền tố
+            if (phone.length() >= MIN_PHONE_SUFFIX_DIGITS && !id.startsWith("+")) {
+                criteria.reversedPhoneSuffix = new StringBuilder(phone).reverse().toString();
+            }
+            return criteria;
+        }
+
+        criteria.fullText = fullText;
+        criteria.nameContains = escapeLike(term);
+        // Boolean mode: mọi từ đều phải có, cho phép khớp tiền tố từ ("Nguy*")
+        criteria.fullTextQuery = Arrays.stream(term.split("\\s+"))
+                .map(word -> word.replaceAll("[+\\-<>()~*\"@]", ""))
+                .filter(word -> !word.isEmpty())
+                .map(word -> "+" + word + "*")
+                .collect(Collectors.joining(" "));
+        if (criteria.fullTextQuery.isEmpty()) {
+            criteria.fullText = false;
+        }
+        return criteria;
+    }
+
+    /**
+     * Chuẩn hóa số điện thoại: bỏ khoảng trắng / dấu chấm / gạch / ngoặc, +84 -> 0,
+     * mã nước khác bỏ dấu + (giữ mã nước, vd "+33 6 12" -> "33612").
+     * Dùng cả khi lưu shipping_phone_normalized lẫn khi tìm kiếm để tiền tố so khớp được với nhau.
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String normalized = phone.replaceAll("[\\s.\\-()]", "");
+        if (normalized.startsWith("+84")) {
+            normalized = "0" + normalized.substring(3);
+        } else if (normalized.startsWith("+")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
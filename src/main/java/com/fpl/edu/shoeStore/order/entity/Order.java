@@ -25,6 +25,8 @@ public class Order {
     private BigDecimal finalAmount;
     private String shippingFullname;
     private String shippingPhone;
+    // Chỉ dùng để tìm kiếm (OrderSearchCriteria.normalizePhone), shippingPhone giữ nguyên như khách nhập
+    private String shippingPhoneNormalized;
     private String shippingAddress;
     private String shippingCity;
     private String shippingCountry;
@@ -1,9 +1,11 @@
 package com.fpl.edu.shoeStore.order.mapper;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import com.fpl.edu.shoeStore.order.dto.request.OrderSearchCriteria;
 import com.fpl.edu.shoeStore.order.entity.Order;
 import com.fpl.edu.shoeStore.order.entity.OrderItem;
 
@@ -16,30 +18,58 @@ public interface OrderMapper {
     // Thêm mới OrderItem
     void insertOrderItem(OrderItem item);
 
+    // Thêm nhiều OrderItem trong 1 câu INSERT nhiều dòng
+    int insertOrderItems(@Param("items") List<OrderItem> items);
+
     // Lấy Order theo ID
     Order findById(int orderId);
 
     // Lấy tất cả OrderItem theo Order ID
     List<OrderItem> findItemsByOrderId(int orderId);
 
+    // Lấy OrderItem của nhiều Order trong 1 query (tránh N+1 khi liệt kê đơn hàng)
+    List<OrderItem> findItemsByOrderIds(@Param("orderIds") List<Integer> orderIds);
+
     // Cập nhật trạng thái
     int updateStatus(@Param("orderId") int orderId, @Param("status") String status);
 
+    // Hủy đơn nếu chưa hủy, trả về 0 nếu đơn không tồn tại hoặc đã CANCELLED
+    int cancel(@Param("orderId") int orderId, @Param("fromStatuses") List<String> fromStatuses);
+
     // Lấy danh sách Order theo Buyer ID
     List<Order> findByBuyerId(int buyerId);
 
-    // Lấy danh sách Order với filter (Admin)
+    // Lấy danh sách Order theo Buyer ID có phân trang
+    List<Order> findByBuyerIdPaged(
+        @Param("buyerId") int buyerId,
+        @Param("offset") int offset,
+        @Param("size") int size
+    );
+
+    // Đếm số order của Buyer
+    long countByBuyerId(@Param("buyerId") int buyerId);
+
+    // Lấy danh sách Order với filter (Admin), search = null nếu không tìm kiếm
     List<Order> findAllPaged(
         @Param("status") String status,
-        @Param("searchTerm") String searchTerm,
+        @Param("search") OrderSearchCriteria search,
         @Param("offset") int offset,
         @Param("size") int size
     );
 
+    // Lấy danh sách Order sau cursor (order_date, order_id) - keyset pagination (Admin)
+    List<Order> findAllAfter(
+        @Param("status") String status,
+        @Param("search") OrderSearchCriteria search,
+        @Param("afterDate") LocalDateTime afterDate,
+        @Param("afterId") Integer afterId,
+        @Param("size") int size
+    );
+
     // Đếm tổng số orders với filter
     long countAll(
         @Param("status") String status,
-        @Param("searchTerm") String searchTerm
+        @Param("search") OrderSearchCriteria search
     );
 
     // Đếm số order theo status
@@ -31,8 +31,17 @@ public interface OrderService {
 
     /**
      * Lấy tất cả đơn hàng (Admin) với filter và search
+     * @param approximateTotal true = bỏ qua COUNT, totalElements chỉ là ước lượng
      */
-    PageResponse<OrderResponse> getAllOrders(String status, String searchTerm, int page, int size);
+    PageResponse<OrderResponse> getAllOrders(String status, String searchTerm, int page, int size, boolean approximateTotal);
+
+    /**
+     * ADMIN: Lấy đơn hàng theo cursor (keyset pagination trên order_date, order_id).
+     * Tổng số đơn lấy qua CountCache nên các trang sau không chạy lại COUNT.
+     * @param after cursor lấy từ nextCursor của trang trước, null/rỗng = trang đầu
+     * @throws OrderException nếu cursor không hợp lệ
+     */
+    PageResponse<OrderResponse> getAllOrdersAfter(String status, String searchTerm, String after, int size) throws OrderException;
 
     /**
      * Hủy đơn hàng (chỉ khi status = PENDING)
@@ -42,7 +51,7 @@ public interface OrderService {
     /**
      * ADMIN: Lấy tất cả đơn hàng với filter
      */
-    PageResponse<OrderResponse> getAllOrdersForAdmin(String status, String searchTerm, int page, int size);
+    PageResponse<OrderResponse> getAllOrdersForAdmin(String status, String searchTerm, int page, int size, boolean approximateTotal);
 
     /**
      * ADMIN: Đếm tổng số đơn hàng
@@ -1,8 +1,11 @@
 package com.fpl.edu.shoeStore.order.service.impl;
 
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.order.converter.OrderConverter;
 import com.fpl.edu.shoeStore.order.dto.request.OrderCreateRequest;
+import com.fpl.edu.shoeStore.order.dto.request.OrderItemRequest;
+import com.fpl.edu.shoeStore.order.dto.request.OrderSearchCriteria;
 import com.fpl.edu.shoeStore.order.dto.response.OrderResponse;
 import com.fpl.edu.shoeStore.order.entity.Order;
 import com.fpl.edu.shoeStore.order.entity.OrderItem;
@@ -13,34 +16,58 @@ import com.fpl.edu.shoeStore.product.entity.Product;
 import com.fpl.edu.shoeStore.product.entity.ProductVariant;
 import com.fpl.edu.shoeStore.product.mapper.ProductMapper;
 import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import com.fpl.edu.shoeStore.product.service.StockReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    // Số dòng tối đa trong một câu INSERT order_items
+    private static final int ORDER_ITEM_BATCH_SIZE = 500;
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_CANCELLED = "CANCELLED";
+    // Hàng chưa rời kho: chỉ hủy từ các trạng thái này mới trả lại tồn kho
+    private static final List<String> STOCK_RELEASABLE_STATUSES = List.of(STATUS_PENDING);
+
     private final OrderMapper orderMapper;
     private final OrderConverter orderConverter;
     private final ProductVariantMapper variantMapper;
     private final ProductMapper productMapper;
+    private final StockReservationService stockReservationService;
+    private final CountCache countCache;
+
+    // Bật sau khi đã tạo FULLTEXT index trong db/order_search_indexes.sql
+    @Value("${order.search.full-text:false}")
+    private boolean fullTextSearch;
 
     @Autowired
     public OrderServiceImpl(
             OrderMapper orderMapper, 
             OrderConverter orderConverter,
             ProductVariantMapper variantMapper,
-            ProductMapper productMapper) {
+            ProductMapper productMapper,
+            StockReservationService stockReservationService,
+            CountCache countCache) {
         this.orderMapper = orderMapper;
         this.orderConverter = orderConverter;
         this.variantMapper = variantMapper;
         this.productMapper = productMapper;
+        this.stockReservationService = stockReservationService;
+        this.countCache = countCache;
     }
 
     @Override
@@ -54,24 +81,42 @@ public class OrderServiceImpl implements OrderService {
         order.setUpdatedAt(LocalDateTime.now());
 
         // 2. TÍNH TOÁN GIÁ DỰA TRÊN DỮ LIỆU DB THỰC TẾ
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new OrderException("Đơn hàng phải có ít nhất một sản phẩm");
+        }
+
+        // TRUY VẤN DB: Lấy toàn bộ variant + product của giỏ hàng (2 query thay vì 2 query / item)
+        List<Integer> variantIds = request.getItems().stream()
+                .map(OrderItemRequest::getVariantId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, ProductVariant> variantsById = variantMapper.findByIds(variantIds).stream()
+                .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity()));
+
+        List<Integer> productIds = variantsById.values().stream()
+                .map(ProductVariant::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, Product> productsById = productIds.isEmpty()
+                ? Collections.emptyMap()
+                : productMapper.findByIds(productIds).stream()
+                        .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
         BigDecimal totalGoodsValue = BigDecimal.ZERO;
         List<OrderItem> items = new ArrayList<>();
         
         for (var itemReq : request.getItems()) {
-            // TRUY VẤN DB: Lấy thông tin variant thực tế
-            ProductVariant variant = variantMapper.findById(itemReq.getVariantId());
+            ProductVariant variant = variantsById.get(itemReq.getVariantId());
             
             if (variant == null) {
                 throw new OrderException("Sản phẩm không tồn tại (Variant ID: " + itemReq.getVariantId() + ")");
             }
-            
-            // Kiểm tra tồn kho
-            if (variant.getStockQty() == null || variant.getStockQty() < itemReq.getQuantity()) {
-                throw new OrderException("Sản phẩm không đủ số lượng trong kho (Variant ID: " + itemReq.getVariantId() + ")");
+            if (itemReq.getQuantity() < 1) {
+                throw new OrderException("Số lượng phải tối thiểu là 1 (Variant ID: " + itemReq.getVariantId() + ")");
             }
             
             // Lấy thông tin product để có tên sản phẩm
-            Product product = productMapper.findById(variant.getProductId());
+            Product product = productsById.get(variant.getProductId());
             if (product == null) {
                 throw new OrderException("Không tìm thấy thông tin sản phẩm");
             }
@@ -115,18 +160,27 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal shippingFee = request.getShippingFee() != null ? request.getShippingFee() : BigDecimal.ZERO;
         order.setFinalAmount(totalGoodsValue.subtract(discount).add(shippingFee));
 
-        // 5. LƯU THỰC TẾ XUỐNG DB
+        // 5. GIỮ HÀNG: trừ tồn kho nguyên tử trên DB (cộng dồn các dòng trùng variant)
+        Map<Integer, Integer> quantitiesByVariantId = request.getItems().stream()
+                .collect(Collectors.toMap(OrderItemRequest::getVariantId, OrderItemRequest::getQuantity, Integer::sum));
+        List<Integer> outOfStockVariantIds = stockReservationService.reserve(quantitiesByVariantId);
+        if (!outOfStockVariantIds.isEmpty()) {
+            throw new OrderException("Sản phẩm không đủ số lượng trong kho (Variant ID: "
+                    + outOfStockVariantIds.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ")");
+        }
+
+        // 6. LƯU THỰC TẾ XUỐNG DB
         orderMapper.insertOrder(order); // MyBatis trả về orderId sau khi insert
+        countCache.invalidate(CountCache.ORDERS);
 
         for (OrderItem item : items) {
             item.setOrderId(order.getOrderId());
-            orderMapper.insertOrderItem(item);
         }
-        
-        // 6. TODO: Trừ số lượng tồn kho (Optional - có thể làm sau)
-        // for (var itemReq : request.getItems()) {
-        //     variantMapper.updateStock(itemReq.getVariantId(), -itemReq.getQuantity());
-        // }
+        // Ghi order_items bằng INSERT nhiều dòng, chia lô để giỏ hàng lớn không vượt giới hạn packet
+        for (int from = 0; from < items.size(); from += ORDER_ITEM_BATCH_SIZE) {
+            int to = Math.min(from + ORDER_ITEM_BATCH_SIZE, items.size());
+            orderMapper.insertOrderItems(items.subList(from, to));
+        }
 
         return orderConverter.toResponse(order, items);
     }
@@ -148,11 +202,28 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public void updateOrderStatus(int orderId, String newStatus) throws OrderException {
+        Order order = orderMapper.findById(orderId);
+        if (order == null) {
+            throw new OrderException("Cập nhật thất bại, không tìm thấy đơn hàng.");
+        }
+        if (STATUS_CANCELLED.equals(order.getStatus())) {
+            // Tồn kho của đơn đã được trả lại khi hủy, mở lại đơn sẽ bán vượt tồn kho
+            throw new OrderException("Không thể đổi trạng thái đơn hàng đã hủy");
+        }
+        boolean cancelling = STATUS_CANCELLED.equalsIgnoreCase(newStatus);
+        if (cancelling && STOCK_RELEASABLE_STATUSES.contains(order.getStatus())) {
+            // Admin hủy đơn chưa giao: trả kho giống khách hủy
+            cancelAndReleaseStock(orderId);
+            return;
+        }
+
         // CẬP NHẬT TRẠNG THÁI TRỰC TIẾP TRÊN DB
-        int affectedRows = orderMapper.updateStatus(orderId, newStatus);
+        // Hủy đơn đang giao / đã giao: hàng đã rời kho nên không trả tồn kho (hàng hoàn về thì nhập lại kho)
+        int affectedRows = orderMapper.updateStatus(orderId, cancelling ? STATUS_CANCELLED : newStatus);
         if (affectedRows == 0) {
-            throw new OrderException("Cập nhật thất bại, không tìm thấy đơn hàng.");
+            throw new OrderException("Cập nhật thất bại, đơn hàng không tồn tại hoặc đã bị hủy.");
         }
+        countCache.invalidate(CountCache.ORDERS);
     }
 
     @Override
@@ -160,38 +231,30 @@ public class OrderServiceImpl implements OrderService {
         // Validate page and size
         if (page < 1) page = 1;
         if (size < 1) size = 10;
+        if (size > 100) size = 100;
 
-        // Lấy danh sách orders của user
-        List<Order> orders = orderMapper.findByBuyerId(userId);
-        
-        // Pagination logic
-        int fromIndex = (page - 1) * size;
-        int toIndex = Math.min(fromIndex + size, orders.size());
-        
-        List<Order> pagedOrders = orders.subList(fromIndex, toIndex);
+        // Phân trang trực tiếp trên DB (không load toàn bộ lịch sử đơn hàng)
+        int offset = (page - 1) * size;
+        List<Order> pagedOrders = orderMapper.findByBuyerIdPaged(userId, offset, size);
+        long totalElements = orderMapper.countByBuyerId(userId);
         
         // Convert to Response DTOs
-        List<OrderResponse> orderResponses = pagedOrders.stream()
-                .map(order -> {
-                    List<OrderItem> items = orderMapper.findItemsByOrderId(order.getOrderId());
-                    return orderConverter.toResponse(order, items);
-                })
-                .collect(Collectors.toList());
+        List<OrderResponse> orderResponses = toResponsesWithItems(pagedOrders);
         
         // Calculate total pages
-        int totalPages = (int) Math.ceil((double) orders.size() / size);
+        int totalPages = (int) Math.ceil((double) totalElements / size);
         
         return PageResponse.<OrderResponse>builder()
                 .content(orderResponses)
                 .pageNumber(page)
                 .pageSize(size)
-                .totalElements((long) orders.size())
+                .totalElements(totalElements)
                 .totalPages(totalPages)
                 .build();
     }
 
     @Override
-    public PageResponse<OrderResponse> getAllOrders(String status, String searchTerm, int page, int size) {
+    public PageResponse<OrderResponse> getAllOrders(String status, String searchTerm, int page, int size, boolean approximateTotal) {
         // Validate page and size
         if (page < 1) page = 1;
         if (size < 1) size = 20;
@@ -199,22 +262,27 @@ public class OrderServiceImpl implements OrderService {
         // Calculate offset
         int offset = (page - 1) * size;
         
-        // Get orders from database with filter
-        List<Order> orders = orderMapper.findAllPaged(status, searchTerm, offset, size);
+        // Get orders from database with filter (approximateTotal: đọc dư 1 dòng thay cho COUNT)
+        List<Order> orders = orderMapper.findAllPaged(status, searchCriteria(searchTerm), offset, approximateTotal ? size + 1 : size);
         
-        // Get total count
-        long totalElements = orderMapper.countAll(status, searchTerm);
+        // Get total count (cache theo bộ filter, hoặc ước lượng)
+        long totalElements = approximateTotal
+                ? countCache.estimate(CountCache.ORDERS, offset, orders.size(), status, searchTerm)
+                : countAllCached(status, searchTerm);
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+        }
         
         // Convert to Response DTOs
-        List<OrderResponse> orderResponses = orders.stream()
-                .map(order -> {
-                    List<OrderItem> items = orderMapper.findItemsByOrderId(order.getOrderId());
-                    return orderConverter.toResponse(order, items);
-                })
-                .collect(Collectors.toList());
+        List<OrderResponse> orderResponses = toResponsesWithItems(orders);
         
         // Calculate total pages
         int totalPages = (int) Math.ceil((double) totalElements / size);
+
+        // Cursor để client chuyển sang keyset pagination từ trang tiếp theo
+        String nextCursor = offset + orders.size() < totalElements && !orders.isEmpty()
+                ? encodeCursor(orders.get(orders.size() - 1))
+                : null;
         
         return PageResponse.<OrderResponse>builder()
                 .content(orderResponses)
@@ -222,6 +290,45 @@ public class OrderServiceImpl implements OrderService {
                 .pageSize(size)
                 .totalElements(totalElements)
                 .totalPages(totalPages)
+                .nextCursor(nextCursor)
+                .approximateTotal(approximateTotal)
+                .build();
+    }
+
+    @Override
+    public PageResponse<OrderResponse> getAllOrdersAfter(String status, String searchTerm, String after, int size) throws OrderException {
+        if (size < 1) size = 20;
+
+        LocalDateTime afterDate = null;
+        Integer afterId = null;
+        if (after != null && !after.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                afterDate = LocalDateTime.parse(raw.substring(0, separator));
+                afterId = Integer.valueOf(raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new OrderException("Cursor không hợp lệ");
+            }
+        }
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không (seek theo order_date, order_id thay vì OFFSET)
+        List<Order> orders = orderMapper.findAllAfter(status, searchCriteria(searchTerm), afterDate, afterId, size + 1);
+        boolean hasNext = orders.size() > size;
+        if (hasNext) {
+            orders = orders.subList(0, size);
+        }
+
+        // Tổng lấy qua CountCache: các trang sau dùng lại kết quả COUNT của trang đầu, không đếm lại
+        long totalElements = countAllCached(status, searchTerm);
+
+        return PageResponse.<OrderResponse>builder()
+                .content(toResponsesWithItems(orders))
+                .pageNumber(0) // Không xác định số trang trong chế độ cursor
+                .pageSize(size)
+                .totalElements(totalElements)
+                .totalPages((int) Math.ceil((double) totalElements / size))
+                .nextCursor(hasNext ? encodeCursor(orders.get(orders.size() - 1)) : null)
                 .build();
     }
 
@@ -241,30 +348,68 @@ public class OrderServiceImpl implements OrderService {
         }
         
         // Chỉ cho phép hủy khi status = PENDING
-        if (!"PENDING".equals(order.getStatus())) {
+        if (!STATUS_PENDING.equals(order.getStatus())) {
             throw new OrderException("Chỉ có thể hủy đơn hàng đang chờ xác nhận");
         }
         
-        // Cập nhật status thành CANCELLED
-        int affectedRows = orderMapper.updateStatus(orderId, "CANCELLED");
-        if (affectedRows == 0) {
-            throw new OrderException("Hủy đơn hàng thất bại");
+        cancelAndReleaseStock(orderId);
+    }
+
+    // Dùng chung cho khách hủy và admin hủy: chỉ request chuyển được đơn sang CANCELLED mới trả kho,
+    // nên tồn kho đã giữ khi tạo đơn được trả đúng 1 lần. Điều kiện trạng thái nằm trong câu UPDATE:
+    // đơn vừa bị chuyển sang SHIPPING ở request khác thì không hủy / không trả kho
+    private void cancelAndReleaseStock(int orderId) throws OrderException {
+        if (orderMapper.cancel(orderId, STOCK_RELEASABLE_STATUSES) == 0) {
+            throw new OrderException("Hủy đơn hàng thất bại, đơn hàng không còn ở trạng thái chờ xử lý");
         }
+        countCache.invalidate(CountCache.ORDERS);
+
+        // Trả lại tồn kho đã giữ khi tạo đơn
+        stockReservationService.release(orderMapper.findItemsByOrderId(orderId).stream()
+                .collect(Collectors.toMap(OrderItem::getVariantId, OrderItem::getQuantity, Integer::sum)));
     }
 
     @Override
-    public PageResponse<OrderResponse> getAllOrdersForAdmin(String status, String searchTerm, int page, int size) {
+    public PageResponse<OrderResponse> getAllOrdersForAdmin(String status, String searchTerm, int page, int size, boolean approximateTotal) {
         // Reuse getAllOrders method (chúng giống nhau)
-        return getAllOrders(status, searchTerm, page, size);
+        return getAllOrders(status, searchTerm, page, size, approximateTotal);
     }
 
     @Override
     public long countAllOrders() {
-        return orderMapper.countAll(null, null);
+        return countAllCached(null, null);
+    }
+
+    private long countAllCached(String status, String searchTerm) {
+        return countCache.count(CountCache.ORDERS, () -> orderMapper.countAll(status, searchCriteria(searchTerm)), status, searchTerm);
+    }
+
+    // Số -> order_id / tiền tố SĐT, chữ -> tên người nhận (xem OrderSearchCriteria)
+    private OrderSearchCriteria searchCriteria(String searchTerm) {
+        return OrderSearchCriteria.of(searchTerm, fullTextSearch);
     }
 
     @Override
     public long countOrdersByStatus(String status) {
         return orderMapper.countByStatus(status);
     }
+
+    // Cursor mờ (opaque): base64url("order_date|order_id")
+    private static String encodeCursor(Order order) {
+        String raw = order.getOrderDate() + "|" + order.getOrderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Lấy items của cả trang trong 1 query rồi nhóm theo orderId
+    private List<OrderResponse> toResponsesWithItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> orderIds = orders.stream()
+                .map(Order::getOrderId)
+                .collect(Collectors.toList());
+        Map<Integer, List<OrderItem>> itemsByOrderId = orderMapper.findItemsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        return orderConverter.toResponseList(orders, itemsByOrderId);
+    }
 }
\ No newline at end of file
@@ -55,12 +55,13 @@ public class PaymentController {
             @RequestParam(required = false) BigDecimal amount,
             @RequestParam(required = false) String transactionRef,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
         PageResponse<PaymentDTOResponse> pageResponse = paymentService.findAllPaged(
                 paymentId, orderId, payerId, paymentMethod,
                 paymentDate, status, amount, transactionRef,
-                page, size
+                page, size, approximateTotal
         );
 
         return ApiResponse.<PageResponse<PaymentDTOResponse>>builder()
@@ -20,7 +20,8 @@ public interface PaymentService {
             BigDecimal amount,
             String transactionRef, 
             int page,
-            int size
+            int size,
+            boolean approximateTotal   // true = bỏ qua COUNT, totalElements chỉ là ước lượng
     );
 
     PaymentDTOResponse createPayment(PaymentDTORequest request);
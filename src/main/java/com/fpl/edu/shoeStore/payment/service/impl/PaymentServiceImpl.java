@@ -1,5 +1,6 @@
 package com.fpl.edu.shoeStore.payment.service.impl;
 
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.payment.convert.PaymentConverter;
 import com.fpl.edu.shoeStore.payment.dto.request.PaymentDTORequest;
@@ -21,6 +22,7 @@ import java.util.stream.Collectors;
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentMapper paymentMapper;
+    private final CountCache countCache;
 
     @Override
     public PageResponse<PaymentDTOResponse> findAllPaged(
@@ -33,20 +35,30 @@ public class PaymentServiceImpl implements PaymentService {
             BigDecimal amount,
             String transactionRef,
             int page,
-            int size
+            int size,
+            boolean approximateTotal
     ) {
         int offset = (page - 1) * size;
 
+        // approximateTotal: đọc dư 1 dòng để biết còn trang sau, không chạy COUNT
         List<Payment> payments = paymentMapper.findAllPaged(
                 paymentId, orderId, payerId, paymentMethod,
                 paymentDate, status, amount, transactionRef,
-                offset, size
+                offset, approximateTotal ? size + 1 : size
         );
 
-        long totalElements = paymentMapper.countAll(
-                paymentId, orderId, payerId, paymentMethod,
-                paymentDate, status, amount, transactionRef
-        );
+        long totalElements = approximateTotal
+                ? countCache.estimate(CountCache.PAYMENTS, offset, payments.size(),
+                        paymentId, orderId, payerId, paymentMethod, paymentDate, status, amount, transactionRef)
+                : countCache.count(CountCache.PAYMENTS,
+                        () -> paymentMapper.countAll(
+                                paymentId, orderId, payerId, paymentMethod,
+                                paymentDate, status, amount, transactionRef
+                        ),
+                        paymentId, orderId, payerId, paymentMethod, paymentDate, status, amount, transactionRef);
+        if (payments.size() > size) {
+            payments = payments.subList(0, size);
+        }
 
         List<PaymentDTOResponse> dtoList = payments.stream()
                 .map(PaymentConverter::toDTO)
@@ -58,6 +70,7 @@ public class PaymentServiceImpl implements PaymentService {
                 .pageSize(size)
                 .totalElements(totalElements)
                 .totalPages((int) Math.ceil((double) totalElements / size))
+                .approximateTotal(approximateTotal)
                 .build();
     }
 
@@ -72,6 +85,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         paymentMapper.insert(payment);
+        countCache.invalidate(CountCache.PAYMENTS);
         return PaymentConverter.toDTO(payment);
     }
 
@@ -92,6 +106,7 @@ public class PaymentServiceImpl implements PaymentService {
         existing.setTransactionDesc(request.getTransactionDesc());
 
         paymentMapper.update(existing);
+        countCache.invalidate(CountCache.PAYMENTS);
         return PaymentConverter.toDTO(existing);
     }
 
@@ -113,6 +128,7 @@ public class PaymentServiceImpl implements PaymentService {
         if (updated == 0) {
             throw new RuntimeException("Không tìm thấy payment với transactionRef: " + transactionRef);
         }
+        countCache.invalidate(CountCache.PAYMENTS);
     }
 
     @Override
@@ -123,7 +139,9 @@ public class PaymentServiceImpl implements PaymentService {
             throw new RuntimeException("Payment không tồn tại với id: " + id);
         }
 
-        return paymentMapper.deleteById(id);
+        int deleted = paymentMapper.deleteById(id);
+        countCache.invalidate(CountCache.PAYMENTS);
+        return deleted;
     }
 
     @Override
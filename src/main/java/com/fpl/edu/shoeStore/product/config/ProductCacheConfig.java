@@ -0,0 +1,49 @@
+package com.fpl.edu.shoeStore.product.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fpl.edu.shoeStore.common.cache.CacheStore;
+import com.fpl.edu.shoeStore.common.cache.LocalLruCache;
+import com.fpl.edu.shoeStore.common.handler.PageResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDtoResponse;
+
+/**
+ * Cache cho các API GET sản phẩm (public, chiếm phần lớn traffic).
+ * Mặc định dùng LocalLruCache trong bộ nhớ; khai báo bean cùng tên để thay bằng cache khác.
+ */
+@Configuration
+public class ProductCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "productByIdCache")
+    public CacheStore<Integer, ProductDtoResponse> productByIdCache(
+            @Value("${product.cache.by-id.max-size:10000}") int maxSize,
+            @Value("${product.cache.by-id.ttl-ms:300000}") long ttlMs) {
+        return new LocalLruCache<>("productById", maxSize, ttlMs);
+    }
+
+    // Product + variants; bị xóa khi product hoặc bất kỳ variant nào của nó thay đổi.
+    // Tồn kho đổi qua đơn hàng không xóa cache nên TTL ngắn hơn (stock_qty chỉ để hiển thị)
+    @Bean
+    @ConditionalOnMissingBean(name = "productDetailCache")
+    public CacheStore<Integer, ProductDetailDtoResponse> productDetailCache(
+            @Value("${product.cache.detail.max-size:10000}") int maxSize,
+            @Value("${product.cache.detail.ttl-ms:60000}") long ttlMs) {
+        return new LocalLruCache<>("productDetail", maxSize, ttlMs);
+    }
+
+    // Key = bộ tham số của findAllPaged (filter + page + size)
+    @Bean
+    @ConditionalOnMissingBean(name = "productPageCache")
+    public CacheStore<List<Object>, PageResponse<ProductDtoResponse>> productPageCache(
+            @Value("${product.cache.page.max-size:1000}") int maxSize,
+            @Value("${product.cache.page.ttl-ms:30000}") long ttlMs) {
+        return new LocalLruCache<>("productPage", maxSize, ttlMs);
+    }
+}
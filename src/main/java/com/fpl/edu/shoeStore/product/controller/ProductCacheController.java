@@ -0,0 +1,40 @@
+package com.fpl.edu.shoeStore.product.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fpl.edu.shoeStore.common.cache.CacheStats;
+import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+import com.fpl.edu.shoeStore.product.service.ProductService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ADMIN: Theo dõi cache sản phẩm
+ * Base URL: /api/v1/admin/products/cache
+ */
+@RestController
+@RequestMapping("/api/v1/admin/products/cache")
+@RequiredArgsConstructor
+public class ProductCacheController {
+
+    private final ProductService productService;
+
+    /**
+     * GET /api/v1/admin/products/cache/stats
+     * hits / misses / evictions / size / hitRate của từng cache
+     */
+    @GetMapping("/stats")
+    public ApiResponse<List<CacheStats>> getCacheStats() {
+        return ApiResponse.<List<CacheStats>>builder()
+                .success(true)
+                .statusCode(HttpStatus.OK.value())
+                .message("Lấy thống kê cache sản phẩm thành công")
+                .data(productService.getCacheStats())
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.fpl.edu.shoeStore.product.controller;
 
+import java.math.BigDecimal;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType; // 👈 Import quan trọng
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,7 +18,10 @@ import org.springframework.web.multipart.MultipartFile;
 import com.fpl.edu.shoeStore.common.handler.ApiResponse;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.product.dto.request.ProductDtoRequest;
+import com.fpl.edu.shoeStore.product.dto.request.ProductSearchRequest;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
 import com.fpl.edu.shoeStore.product.dto.response.ProductDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchResponse;
 import com.fpl.edu.shoeStore.product.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -37,15 +42,17 @@ public class ProductController {
     @GetMapping
     public ApiResponse<PageResponse<ProductDtoResponse>> getAllProducts(
             @RequestParam(required = false) Integer categoryId,
+            @RequestParam(defaultValue = "false") boolean includeDescendants,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Boolean isActive,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
         try {
             PageResponse<ProductDtoResponse> pageResponse = productService.findAllPaged(
-                    categoryId, title, status, isActive, page, size
+                    categoryId, includeDescendants, title, status, isActive, page, size, approximateTotal
             );
 
             return ApiResponse.<PageResponse<ProductDtoResponse>>builder()
@@ -92,6 +99,84 @@ public class ProductController {
         }
     }
 
+    /**
+     * GET /api/v1/products/{id}/detail
+     * Sản phẩm kèm toàn bộ variants (1 request, 1 query JOIN), thay cho gọi riêng /products/{id} và /product-variants/product/{id}
+     */
+    @GetMapping("/{id}/detail")
+    public ApiResponse<ProductDetailDtoResponse> getProductDetail(@PathVariable Integer id) {
+        try {
+            ProductDetailDtoResponse product = productService.findDetailById(id);
+            if (product == null) {
+                return ApiResponse.<ProductDetailDtoResponse>builder()
+                        .success(false)
+                        .statusCode(HttpStatus.NOT_FOUND.value())
+                        .message("Không tìm thấy sản phẩm với ID: " + id)
+                        .data(null)
+                        .build();
+            }
+            return ApiResponse.<ProductDetailDtoResponse>builder()
+                    .success(true)
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Lấy chi tiết sản phẩm thành công")
+                    .data(product)
+                    .build();
+        } catch (Exception e) {
+            return ApiResponse.<ProductDetailDtoResponse>builder()
+                    .success(false)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message("Lỗi: " + e.getMessage())
+                    .data(null)
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/v1/products/search?q=nike chay&brand=Nike&shoeSize=42&color=Đen&minPrice=&maxPrice=
+     * Tìm kiếm có xếp hạng + facet (brand, size, color, price) trên index trong bộ nhớ
+     */
+    @GetMapping("/search")
+    public ApiResponse<ProductSearchResponse> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(defaultValue = "false") boolean includeDescendants,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String shoeSize,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        try {
+            ProductSearchRequest request = ProductSearchRequest.builder()
+                    .q(q)
+                    .categoryId(categoryId)
+                    .includeDescendants(includeDescendants)
+                    .brand(brand)
+                    .shoeSize(shoeSize)
+                    .color(color)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .page(page)
+                    .size(size)
+                    .build();
+            return ApiResponse.<ProductSearchResponse>builder()
+                    .success(true)
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Tìm kiếm sản phẩm thành công")
+                    .data(productService.search(request))
+                    .build();
+        } catch (Exception e) {
+            return ApiResponse.<ProductSearchResponse>builder()
+                    .success(false)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message("Lỗi: " + e.getMessage())
+                    .data(null)
+                    .build();
+        }
+    }
+
     @GetMapping("/search/title")
     public ApiResponse<ProductDtoResponse> getProductByTitle(@RequestParam String title) {
         try {
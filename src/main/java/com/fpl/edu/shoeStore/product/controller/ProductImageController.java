@@ -0,0 +1,81 @@
+package com.fpl.edu.shoeStore.product.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ImageUploadResponse;
+import com.fpl.edu.shoeStore.product.upload.ImageStorage;
+import com.fpl.edu.shoeStore.product.upload.StoredImage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ADMIN: Upload ảnh sản phẩm / variant
+ * Base URL: /api/v1/admin/products/images
+ *
+ * Upload trước, lấy url gửi vào defaultImage / image của product / variant.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/products/images")
+@RequiredArgsConstructor
+public class ProductImageController {
+
+    private final ImageStorage imageStorage;
+
+    /**
+     * POST /api/v1/admin/products/images (multipart, field "file")
+     * Trả về ngay khi ảnh gốc đã lưu; thumbnail được tạo nền
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ApiResponse<ImageUploadResponse> uploadImage(@RequestParam("file") MultipartFile file) {
+        try {
+            StoredImage image = imageStorage.store(file);
+            if (image == null) {
+                return ApiResponse.<ImageUploadResponse>builder()
+                        .success(false)
+                        .statusCode(HttpStatus.BAD_REQUEST.value())
+                        .message("File ảnh trống")
+                        .data(null)
+                        .build();
+            }
+            Map<Integer, String> thumbnails = new LinkedHashMap<>();
+            for (int size : imageStorage.getThumbnailSizes()) {
+                thumbnails.put(size, imageStorage.thumbnailUrl(image.name(), size));
+            }
+            return ApiResponse.<ImageUploadResponse>builder()
+                    .success(true)
+                    .statusCode(HttpStatus.CREATED.value())
+                    .message("Upload ảnh thành công")
+                    .data(ImageUploadResponse.builder()
+                            .url(image.url())
+                            .sizeBytes(image.sizeBytes())
+                            .deduplicated(image.deduplicated())
+                            .thumbnails(thumbnails)
+                            .build())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.<ImageUploadResponse>builder()
+                    .success(false)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .message(e.getMessage())
+                    .data(null)
+                    .build();
+        } catch (Exception e) {
+            return ApiResponse.<ImageUploadResponse>builder()
+                    .success(false)
+                    .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .message("Lỗi khi upload ảnh: " + e.getMessage())
+                    .data(null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.fpl.edu.shoeStore.product.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductImportResult;
+import com.fpl.edu.shoeStore.product.importer.ImportFormat;
+import com.fpl.edu.shoeStore.product.service.ProductImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ADMIN: Import sản phẩm hàng loạt (CSV / NDJSON, mỗi dòng 1 variant)
+ * Base URL: /api/v1/admin/products/import
+ *
+ * CSV header ví dụ:
+ * product_code,category_id,title,brand,description,base_price,product_variant_code,variant_name,price,stock_qty,weight_grams,attribute
+ * NDJSON: mỗi dòng 1 object cùng các key trên (snake_case hoặc camelCase)
+ */
+@RestController
+@RequestMapping("/api/v1/admin/products/import")
+@RequiredArgsConstructor
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    /**
+     * POST /api/v1/admin/products/import (multipart, field "file")
+     * format: CSV | NDJSON, bỏ trống thì đoán theo đuôi file
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ApiResponse<ProductImportResult> importFile(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Integer userId) {
+        try (InputStream input = file.getInputStream()) {
+            ImportFormat importFormat = ImportFormat.detect(format, file.getContentType(), file.getOriginalFilename());
+            return success(productImportService.importProducts(input, importFormat, userId));
+        } catch (IllegalArgumentException e) {
+            return failure(HttpStatus.BAD_REQUEST, "Định dạng không hợp lệ: " + e.getMessage());
+        } catch (Exception e) {
+            return failure(HttpStatus.INTERNAL_SERVER_ERROR, "Lỗi khi import sản phẩm: " + e.getMessage());
+        }
+    }
+
+    /**
+     * POST /api/v1/admin/products/import (body là nội dung file, Content-Type: text/csv hoặc application/x-ndjson)
+     * Đọc thẳng từ request, không lưu file tạm và không bị giới hạn dung lượng multipart
+     */
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ApiResponse<ProductImportResult> importStream(
+            HttpServletRequest request,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Integer userId) {
+        try (InputStream input = request.getInputStream()) {
+            ImportFormat importFormat = ImportFormat.detect(format, contentType, null);
+            return success(productImportService.importProducts(input, importFormat, userId));
+        } catch (IllegalArgumentException e) {
+            return failure(HttpStatus.BAD_REQUEST, "Định dạng không hợp lệ: " + e.getMessage());
+        } catch (IOException e) {
+            return failure(HttpStatus.BAD_REQUEST, "Lỗi khi đọc dữ liệu import: " + e.getMessage());
+        } catch (Exception e) {
+            return failure(HttpStatus.INTERNAL_SERVER_ERROR, "Lỗi khi import sản phẩm: " + e.getMessage());
+        }
+    }
+
+    private static ApiResponse<ProductImportResult> success(ProductImportResult result) {
+        return ApiResponse.<ProductImportResult>builder()
+                .success(result.getFailedRows() == 0)
+                .statusCode(HttpStatus.OK.value())
+                .message(result.getFailedRows() == 0
+                        ? "Import sản phẩm thành công"
+                        : "Import xong, " + result.getFailedRows() + " dòng lỗi")
+                .data(result)
+                .build();
+    }
+
+    private static ApiResponse<ProductImportResult> failure(HttpStatus status, String message) {
+        return ApiResponse.<ProductImportResult>builder()
+                .success(false)
+                .statusCode(status.value())
+                .message(message)
+                .data(null)
+                .build();
+    }
+}
@@ -1,8 +1,15 @@
 package com.fpl.edu.shoeStore.product.controller;
 
+     import java.io.BufferedOutputStream;
+     import java.io.IOException;
+     import java.io.OutputStream;
+     import java.io.UncheckedIOException;
      import java.util.List;
 
+     import org.springframework.http.HttpHeaders;
      import org.springframework.http.HttpStatus;
+     import org.springframework.http.MediaType;
+     import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
      import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,8 +20,12 @@ import org.springframework.web.bind.annotation.PostMapping;
      import org.springframework.web.bind.annotation.RequestMapping;
      import org.springframework.web.bind.annotation.RequestParam;
      import org.springframework.web.bind.annotation.RestController;
+     import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+     import com.fasterxml.jackson.databind.ObjectMapper;
+     import com.fasterxml.jackson.databind.ObjectWriter;
      import com.fpl.edu.shoeStore.common.handler.ApiResponse;
+     import com.fpl.edu.shoeStore.common.handler.PageResponse;
      import com.fpl.edu.shoeStore.product.dto.request.ProductVariantDtoRequest;
      import com.fpl.edu.shoeStore.product.dto.response.ProductVariantDtoResponse;
      import com.fpl.edu.shoeStore.product.service.ProductVariantService;
@@ -36,7 +47,11 @@ import org.springframework.web.bind.annotation.PostMapping;
      @RequiredArgsConstructor
      public class ProductVariantController {
 
+         private static final int MAX_PAGE_SIZE = 500;
+         private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
          private final ProductVariantService productVariantService;
+         private final ObjectMapper objectMapper;
          /**
           * POST /api/product-variants - Create new product variant
           *
@@ -220,23 +235,37 @@ import org.springframework.web.bind.annotation.PostMapping;
      }
 
          /**
-          * GET /api/product-variants - Get all product variants
+          * GET /api/product-variants - Get product variants (keyset pagination)
+          *
+          * Example: GET /api/product-variants?productId=1&inStock=true&size=100
+          * Trang sau: GET /api/product-variants?after={nextCursor}&size=100
           *
-          * @return List of all product variants
+          * @param after nextCursor của trang trước (variant_id cuối trang), bỏ trống = trang đầu
+          * @param code  tiền tố mã SKU
+          * @return 1 trang variants theo variant_id tăng dần
           */
          @GetMapping
-     public ApiResponse<List<ProductVariantDtoResponse>> getAllVariants() {
+     public ApiResponse<PageResponse<ProductVariantDtoResponse>> getAllVariants(
+             @RequestParam(required = false) Integer productId,
+             @RequestParam(required = false) Boolean isActive,
+             @RequestParam(required = false) Boolean inStock,
+             @RequestParam(required = false) String code,
+             @RequestParam(required = false) Integer after,
+             @RequestParam(defaultValue = "50") int size) {
          try {
-             List<ProductVariantDtoResponse> responses =
-     productVariantService.getAllVariants();
-             return ApiResponse.<List<ProductVariantDtoResponse>>builder()
+             if (size <= 0) size = 50;
+             if (size > MAX_PAGE_SIZE) size = MAX_PAGE_SIZE;
+
+             PageResponse<ProductVariantDtoResponse> responses =
+     productVariantService.getVariantsPage(productId, isActive, inStock, code, after, size);
+             return ApiResponse.<PageResponse<ProductVariantDtoResponse>>builder()
                      .success(true)
                      .statusCode(HttpStatus.OK.value())
-                     .message("Lấy danh sách tất cả variants thành công")
+                     .message("Lấy danh sách variants thành công")
                      .data(responses)
                      .build();
          } catch (Exception e) {
-             return ApiResponse.<List<ProductVariantDtoResponse>>builder()
+             return ApiResponse.<PageResponse<ProductVariantDtoResponse>>builder()
                      .success(false)
                      .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
                      .message("Lỗi khi lấy danh sách variants: " + e.getMessage())
@@ -245,6 +274,40 @@ import org.springframework.web.bind.annotation.PostMapping;
          }
      }
 
+         /**
+          * GET /api/product-variants/export - Export variants dạng NDJSON (mỗi dòng 1 JSON object)
+          *
+          * Example: GET /api/product-variants/export?isActive=true
+          *
+          * Dữ liệu được đọc theo luồng từ DB và ghi thẳng ra response, bộ nhớ không tăng theo số lượng variant.
+          * Lỗi giữa chừng thì response bị cắt (client kiểm tra dòng cuối).
+          */
+         @GetMapping("/export")
+     public ResponseEntity<StreamingResponseBody> exportVariants(
+             @RequestParam(required = false) Integer productId,
+             @RequestParam(required = false) Boolean isActive,
+             @RequestParam(required = false) Boolean inStock,
+             @RequestParam(required = false) String code) {
+         ObjectWriter writer = objectMapper.writerFor(ProductVariantDtoResponse.class);
+         StreamingResponseBody body = outputStream -> {
+             OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+             productVariantService.forEachVariant(productId, isActive, inStock, code, variant -> {
+                 try {
+                     out.write(writer.writeValueAsBytes(variant));
+                     out.write('\n');
+                 } catch (IOException e) {
+                     // Client ngắt kết nối: ném ra để dừng đọc tiếp từ DB
+                     throw new UncheckedIOException(e);
+                 }
+             });
+             out.flush();
+         };
+         return ResponseEntity.ok()
+                 .contentType(NDJSON)
+                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"product-variants.ndjson\"")
+                 .body(body);
+     }
+
          /**
           * GET /api/product-variants/code/{productVariantCode} - Get variant by code
           *
@@ -50,6 +50,10 @@
                      .build();
          }
 
+         public static ProductDetailDtoResponse toDetailResponse(Product product) {
+             return toDetailResponse(product, product.getVariants() != null ? product.getVariants() : List.of());
+         }
+
          public static ProductDetailDtoResponse toDetailResponse(Product product, List<ProductVariant> variants) {
              return ProductDetailDtoResponse.builder()
                      .productId(product.getProductId())
@@ -0,0 +1,28 @@
+package com.fpl.edu.shoeStore.product.dto.request;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tham số tìm kiếm sản phẩm (GET /api/v1/products/search), mọi filter đều không bắt buộc.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchRequest {
+    private String q;                       // Từ khóa: tên, thương hiệu, mô tả, danh mục, size / màu
+    private Integer categoryId;
+    private boolean includeDescendants;     // true = cả danh mục con cháu
+    private String brand;
+    private String shoeSize;                // Size giày của variant, vd "42"
+    private String color;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private int page;
+    private int size;
+}
@@ -0,0 +1,19 @@
+package com.fpl.edu.shoeStore.product.dto.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageUploadResponse {
+    private String url;                     // URL chuẩn /uploads/{sha256}.{ext}
+    private long sizeBytes;
+    private boolean deduplicated;           // true nếu ảnh cùng nội dung đã có sẵn
+    private Map<Integer, String> thumbnails; // Cạnh dài (px) -> URL, được tạo nền nên có thể chưa có ngay
+}
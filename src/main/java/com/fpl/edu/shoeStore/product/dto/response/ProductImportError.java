@@ -0,0 +1,17 @@
+package com.fpl.edu.shoeStore.product.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportError {
+    private long line;                      // Số dòng trong file
+    private String productCode;             // null nếu dòng không đọc được
+    private String variantCode;
+    private String message;
+}
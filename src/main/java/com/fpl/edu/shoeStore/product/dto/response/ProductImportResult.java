@@ -0,0 +1,23 @@
+package com.fpl.edu.shoeStore.product.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResult {
+    private long totalRows;
+    private long importedProducts;          // Sản phẩm mới được tạo
+    private long importedVariants;
+    private long failedRows;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<ProductImportError> errors;
+    private boolean errorsTruncated;        // true nếu số lỗi vượt product.import.max-errors (chỉ trả về phần đầu)
+}
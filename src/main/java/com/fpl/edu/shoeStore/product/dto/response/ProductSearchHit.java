@@ -0,0 +1,27 @@
+package com.fpl.edu.shoeStore.product.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchHit {
+    private Integer productId;
+    private Integer categoryId;
+    private String title;
+    private String url;
+    private String brand;
+    private String defaultImage;
+    private BigDecimal minPrice;            // Giá thấp nhất / cao nhất trong các variant (không có variant: basePrice)
+    private BigDecimal maxPrice;
+    private List<String> sizes;
+    private List<String> colors;
+    private double score;                   // Điểm liên quan, 0 khi không có từ khóa
+}
@@ -0,0 +1,24 @@
+package com.fpl.edu.shoeStore.product.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchResponse {
+    private List<ProductSearchHit> content;
+    private int pageNumber;
+    private int pageSize;
+    private long totalElements;
+    private int totalPages;
+    // brand / size / color / price -> (giá trị -> số sản phẩm), tính trên toàn bộ kết quả đã lọc
+    private Map<String, Map<String, Integer>> facets;
+    private double tookMs;
+}
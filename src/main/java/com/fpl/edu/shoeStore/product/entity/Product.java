@@ -7,6 +7,7 @@
 
      import java.math.BigDecimal;
      import java.time.LocalDateTime;
+     import java.util.List;
 
      @Data
      @NoArgsConstructor
@@ -29,4 +30,5 @@
          private LocalDateTime updateAt;
          private Integer createBy;
          private Integer updateBy;
+         private List<ProductVariant> variants;   // Chỉ có khi đọc bằng findDetailById (join variants)
      }
@@ -0,0 +1,24 @@
+package com.fpl.edu.shoeStore.product.importer;
+
+/**
+ * Định dạng file import sản phẩm: mỗi dòng là 1 variant, cột product lặp lại cho các variant cùng product_code.
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Đoán định dạng theo tham số format / Content-Type / tên file, mặc định CSV.
+     */
+    public static ImportFormat detect(String format, String contentType, String filename) {
+        if (format != null && !format.isBlank()) {
+            return valueOf(format.trim().toUpperCase());
+        }
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        String name = filename == null ? "" : filename.toLowerCase();
+        if (type.contains("ndjson") || type.contains("jsonl") || name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
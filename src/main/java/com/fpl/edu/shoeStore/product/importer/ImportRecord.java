@@ -0,0 +1,14 @@
+package com.fpl.edu.shoeStore.product.importer;
+
+import java.util.Map;
+
+/**
+ * 1 dòng đọc từ file import, chưa kiểm tra.
+ *
+ * @param line   số dòng trong file (dòng đầu tiên = 1), dùng để báo lỗi
+ * @param fields CSV: tên cột -> giá trị; NDJSON: null (parse ở bước kiểm tra, chạy song song)
+ * @param json   NDJSON: nội dung dòng; CSV: null
+ * @param error  lỗi cú pháp phát hiện lúc đọc (sai số cột, thiếu dấu nháy đóng), null nếu không có
+ */
+public record ImportRecord(long line, Map<String, String> fields, String json, String error) {
+}
@@ -0,0 +1,149 @@
+package com.fpl.edu.shoeStore.product.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đọc file import theo luồng, mỗi lần 1 bản ghi: bộ nhớ không phụ thuộc kích thước file.
+ *
+ * - CSV: dòng đầu là header; hỗ trợ giá trị trong dấu nháy kép (có dấu phẩy, xuống dòng, "" = dấu nháy)
+ * - NDJSON: mỗi dòng 1 JSON object, bỏ qua dòng trống; JSON được parse ở bước kiểm tra
+ *
+ * Không thread-safe, chỉ 1 thread đọc.
+ */
+public final class ImportRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final StringBuilder field = new StringBuilder();
+    private List<String> header;
+    private long lineNumber;
+
+    public ImportRecordReader(InputStream input, ImportFormat format) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+    }
+
+    /**
+     * @return bản ghi tiếp theo, null khi hết file
+     */
+    public ImportRecord next() throws IOException {
+        return format == ImportFormat.CSV ? nextCsv() : nextJson();
+    }
+
+    private ImportRecord nextJson() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                return new ImportRecord(lineNumber, null, stripBom(line), null);
+            }
+        }
+        return null;
+    }
+
+    private ImportRecord nextCsv() throws IOException {
+        if (header == null) {
+            List<String> names = readCsvRow();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(ProductImportRow.normalizeKey(stripBom(name)));
+            }
+        }
+        while (true) {
+            long line = lineNumber + 1;
+            List<String> values = readCsvRow();
+            if (values == null) {
+                return null;
+            }
+            if (values.size() == 1 && values.get(0) == null) {
+                return new ImportRecord(line, null, null, "Thiếu dấu nháy kép đóng");
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            if (values.size() != header.size()) {
+                return new ImportRecord(line, null, null,
+                        "Số cột " + values.size() + " khác header (" + header.size() + " cột)");
+            }
+            Map<String, String> fields = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return new ImportRecord(line, fields, null, null);
+        }
+    }
+
+    // Đọc 1 bản ghi CSV (có thể trải nhiều dòng nếu giá trị trong nháy chứa xuống dòng).
+    // Hết file giữa chừng giá trị trong nháy -> trả về [null]
+    private List<String> readCsvRow() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i >= line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    List<String> broken = new ArrayList<>(1);
+                    broken.add(null);
+                    return broken;
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        values.add(field.toString());
+        return values;
+    }
+
+    private static String stripBom(String value) {
+        return !value.isEmpty() && value.charAt(0) == '\uFEFF' ? value.substring(1) : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,191 @@
+package com.fpl.edu.shoeStore.product.importer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+
+/**
+ * 1 dòng import đã chuyển kiểu và kiểm tra (không phụ thuộc DB, chạy song song được).
+ *
+ * Tên cột không phân biệt hoa thường / dấu gạch: product_code = productCode = PRODUCT-CODE.
+ * Bắt buộc: product_code, category_id, title, product_variant_code (hoặc sku), price.
+ */
+@Getter
+public class ProductImportRow {
+
+    private static final int MAX_CODE_LENGTH = 100;
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    // Tên khác của cùng 1 cột (đã chuẩn hóa)
+    private static final Map<String, String> ALIASES = Map.of(
+            "productvariantcode", "variantcode",
+            "sku", "variantcode",
+            "stock", "stockqty");
+
+    private long line;
+    private String productCode;
+    private Integer categoryId;
+    private String title;
+    private String url;
+    private String description;
+    private BigDecimal basePrice;
+    private String brand;
+    private String condition;
+    private String status;
+    private String defaultImage;
+    private String variantCode;
+    private String variantName;
+    private BigDecimal price;
+    private Integer stockQty;
+    private Integer weightGrams;
+    private String attribute;
+    private String image;
+
+    private ProductImportRow() {
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu dòng sai cú pháp / thiếu cột bắt buộc / sai kiểu (message dùng để báo lỗi)
+     */
+    public static ProductImportRow of(ImportRecord record, ObjectMapper objectMapper) {
+        if (record.error() != null) {
+            throw new IllegalArgumentException(record.error());
+        }
+        Map<String, String> fields = record.fields() != null ? record.fields() : parseJson(record.json(), objectMapper);
+
+        ProductImportRow row = new ProductImportRow();
+        row.line = record.line();
+        row.productCode = required(fields, "productcode", MAX_CODE_LENGTH);
+        row.variantCode = required(fields, "variantcode", MAX_CODE_LENGTH);
+        row.title = required(fields, "title", MAX_TITLE_LENGTH);
+        row.categoryId = integer(fields, "categoryid", true);
+        row.price = decimal(fields, "price", true);
+        row.basePrice = decimal(fields, "baseprice", false);
+        if (row.basePrice == null) {
+            row.basePrice = row.price;
+        }
+        row.stockQty = integer(fields, "stockqty", false);
+        if (row.stockQty == null) {
+            row.stockQty = 0;
+        }
+        if (row.stockQty < 0) {
+            throw new IllegalArgumentException("stock_qty không được âm");
+        }
+        row.weightGrams = integer(fields, "weightgrams", false);
+        row.url = text(fields, "url");
+        row.description = text(fields, "description");
+        row.brand = text(fields, "brand");
+        row.condition = text(fields, "condition");
+        row.status = text(fields, "status");
+        row.defaultImage = text(fields, "defaultimage");
+        row.variantName = text(fields, "variantname");
+        row.attribute = text(fields, "attribute");
+        row.image = text(fields, "image");
+        return row;
+    }
+
+    /**
+     * Chuẩn hóa tên cột / key JSON: chữ thường, bỏ '_', '-', khoảng trắng, áp dụng tên khác.
+     */
+    public static String normalizeKey(String key) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '_' && c != '-' && !Character.isWhitespace(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        String name = normalized.toString();
+        return ALIASES.getOrDefault(name, name);
+    }
+
+    private static Map<String, String> parseJson(String json, ObjectMapper objectMapper) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON không hợp lệ: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Mỗi dòng phải là 1 JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+            JsonNode value = entry.getValue();
+            String text;
+            if (value.isNull()) {
+                text = null;
+            } else if (value.isNumber()) {
+                text = value.decimalValue().toPlainString();
+            } else if (value.isValueNode()) {
+                text = value.asText();
+            } else {
+                // attribute / image có thể gửi dạng object / mảng JSON -> lưu nguyên chuỗi JSON
+                text = value.toString();
+            }
+            fields.put(normalizeKey(entry.getKey()), text);
+        }
+        return fields;
+    }
+
+    private static String text(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(Map<String, String> fields, String key, int maxLength) {
+        String value = text(fields, key);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu " + key);
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(key + " dài quá " + maxLength + " ký tự");
+        }
+        return value;
+    }
+
+    private static Integer integer(Map<String, String> fields, String key, boolean required) {
+        String value = text(fields, key);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Thiếu " + key);
+            }
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " không phải số nguyên: " + value);
+        }
+    }
+
+    private static BigDecimal decimal(Map<String, String> fields, String key, boolean required) {
+        String value = text(fields, key);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Thiếu " + key);
+            }
+            return null;
+        }
+        BigDecimal number;
+        try {
+            number = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " không phải số: " + value);
+        }
+        if (number.signum() < 0) {
+            throw new IllegalArgumentException(key + " không được âm");
+        }
+        return number;
+    }
+}
@@ -12,6 +12,12 @@
 
          Product findById(@Param("productId") Integer productId);           // Đổi Long → Integer
 
+         Product findDetailById(@Param("productId") Integer productId);     // Product + variants (1 query, JOIN)
+
+         List<Product> findByIds(@Param("productIds") List<Integer> productIds);  // Lấy nhiều product trong 1 query
+
+         List<Product> findByProductCodes(@Param("productCodes") List<String> productCodes);  // Chỉ product_id, product_code (import)
+
          Product findByTitle(@Param("title") String title);                 // Đổi từ findByName
 
          int insert(Product product);
@@ -21,7 +27,7 @@
          int deleteById(@Param("productId") Integer productId);             // Đổi Long → Integer
 
          List<Product> findAllPaged(
-             @Param("categoryId") Integer categoryId,
+             @Param("categoryIds") List<Integer> categoryIds,   // null = mọi danh mục
              @Param("title") String title,
              @Param("status") String status,
              @Param("isActive") Boolean isActive,
@@ -30,7 +36,7 @@
          );
 
          long countAll(
-             @Param("categoryId") Integer categoryId,
+             @Param("categoryIds") List<Integer> categoryIds,   // null = mọi danh mục
              @Param("title") String title,
              @Param("status") String status,
              @Param("isActive") Boolean isActive
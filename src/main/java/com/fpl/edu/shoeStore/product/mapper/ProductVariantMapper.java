@@ -3,8 +3,10 @@
      import com.fpl.edu.shoeStore.product.entity.ProductVariant;
      import org.apache.ibatis.annotations.Mapper;
      import org.apache.ibatis.annotations.Param;
+     import org.apache.ibatis.session.ResultHandler;
 
      import java.util.List;
+     import java.util.Map;
 
      @Mapper
      public interface ProductVariantMapper {
@@ -12,16 +14,60 @@
 
          ProductVariant findById(@Param("variantId") Integer variantId);                // Đổi Long → Integer
 
+         List<ProductVariant> findByIds(@Param("variantIds") List<Integer> variantIds);  // Lấy nhiều variant trong 1 query
+
          int insert(ProductVariant variant);
 
+         // 1 câu INSERT nhiều dòng; danh sách không được rỗng, service tự chia lô để câu SQL không quá lớn.
+         // Không gán variantId cho các phần tử (xem ghi chú trong XML)
+         int insertBatch(@Param("variants") List<ProductVariant> variants);
+
          int update(ProductVariant variant);
 
          int deleteById(@Param("variantId") Integer variantId);                         // Đổi Long → Integer
 
          List<ProductVariant> findAll();
 
+         // Keyset pagination theo variant_id tăng dần; afterId = null là trang đầu. Filter null = không lọc
+         List<ProductVariant> findPage(
+             @Param("productId") Integer productId,
+             @Param("isActive") Boolean isActive,
+             @Param("inStock") Boolean inStock,
+             @Param("codePrefix") String codePrefix,
+             @Param("afterId") Integer afterId,
+             @Param("size") int size
+         );
+
+         long countFiltered(
+             @Param("productId") Integer productId,
+             @Param("isActive") Boolean isActive,
+             @Param("inStock") Boolean inStock,
+             @Param("codePrefix") String codePrefix
+         );
+
+         // Đọc theo luồng (fetchSize), mỗi dòng được giao cho handler rồi bỏ đi
+         void streamFiltered(
+             @Param("productId") Integer productId,
+             @Param("isActive") Boolean isActive,
+             @Param("inStock") Boolean inStock,
+             @Param("codePrefix") String codePrefix,
+             ResultHandler<ProductVariant> handler
+         );
+
          int updateStock(@Param("variantId") Integer variantId, @Param("quantity") Integer quantity);  // Đổi Long → Integer
 
+         // Khóa các dòng variant (SELECT ... FOR UPDATE) theo thứ tự variant_id tăng dần
+         List<ProductVariant> lockStockByIds(@Param("variantIds") List<Integer> variantIds);
+
+         // Trừ tồn kho có điều kiện (stock_qty >= quantity) cho nhiều variant trong 1 câu UPDATE
+         int reserveStock(@Param("quantities") Map<Integer, Integer> quantities);
+
+         // Cộng dồn chênh lệch tồn kho (có thể âm) cho nhiều variant trong 1 câu UPDATE
+         int applyStockDeltas(@Param("deltas") Map<Integer, Integer> deltas);
+
+         // Các mã SKU trong danh sách đã có trong DB (import kiểm tra trùng theo lô)
+         List<String> findExistingCodes(@Param("codes") List<String> codes);
+
          ProductVariant findByCode(@Param("productVariantCode") String productVariantCode);
 
          // XÓA: findActiveByProductId (vì DB không có is_active)
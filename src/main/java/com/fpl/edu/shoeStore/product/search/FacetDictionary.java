@@ -0,0 +1,40 @@
+package com.fpl.edu.shoeStore.product.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đánh số các giá trị facet (brand / size / color / khoảng giá) để lúc tìm đếm facet bằng mảng int
+ * thay vì HashMap theo chuỗi. Chỉ thêm, không xóa: số giá trị khác nhau của một cửa hàng giày là nhỏ.
+ */
+final class FacetDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> facets = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+
+    /**
+     * @param key giá trị đã chuẩn hóa (ProductDocument.normalize), label giá trị hiển thị
+     */
+    synchronized int idOf(String facet, String key, String label) {
+        return ids.computeIfAbsent(facet + ':' + key, k -> {
+            facets.add(facet);
+            labels.add(label);
+            return labels.size() - 1;
+        });
+    }
+
+    synchronized int size() {
+        return labels.size();
+    }
+
+    synchronized String facet(int id) {
+        return facets.get(id);
+    }
+
+    synchronized String label(int id) {
+        return labels.get(id);
+    }
+}
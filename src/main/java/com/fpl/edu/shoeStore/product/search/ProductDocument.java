@@ -0,0 +1,220 @@
+package com.fpl.edu.shoeStore.product.search;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fpl.edu.shoeStore.product.entity.Product;
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+
+/**
+ * Một sản phẩm (kèm các variant) đã được phân tích để đưa vào ProductSearchIndex.
+ * Bất biến: sửa sản phẩm / variant thì dựng document mới rồi thay vào index.
+ */
+final class ProductDocument {
+
+    // Trọng số của từ theo trường (xếp hạng kết quả)
+    private static final int TITLE_WEIGHT = 5;
+    private static final int BRAND_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    private static final int ATTRIBUTE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // {"Size": 40, "Color": "Black"} (API) - mỗi cặp "khóa": giá trị
+    private static final Pattern JSON_PAIR = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\"?([^\",}]*)\"?");
+
+    final Product product;
+    final BigDecimal minPrice;
+    final BigDecimal maxPrice;
+    final String brand;
+    final String brandKey;
+    // Khóa đã chuẩn hóa -> giá trị hiển thị đầu tiên gặp ("den" -> "Đen")
+    final Map<String, String> sizes;
+    final Map<String, String> colors;
+    final Map<String, Integer> termWeights;
+    // Id (FacetDictionary) của brand, -1 nếu không có
+    final int brandFacetId;
+    // Các variant đang bán: lọc / đếm facet size, màu, giá theo từng variant
+    final List<Variant> variants;
+    // Sắp xếp "mới nhất trước" không phải so sánh LocalDateTime
+    final long createdAt;
+
+    private ProductDocument(Product product, BigDecimal minPrice, BigDecimal maxPrice, String brand,
+                            Map<String, String> sizes, Map<String, String> colors, Map<String, Integer> termWeights,
+                            int brandFacetId, List<Variant> variants) {
+        this.product = product;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.brand = brand;
+        this.brandKey = brand != null ? normalize(brand) : null;
+        this.sizes = sizes;
+        this.colors = colors;
+        this.termWeights = termWeights;
+        this.brandFacetId = brandFacetId;
+        this.variants = variants;
+        this.createdAt = product.getCreateAt() != null ? product.getCreateAt().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    }
+
+    /**
+     * Tên danh mục không nằm trong document: ProductSearchIndex khớp từ khóa với cây danh mục lúc tìm,
+     * nên đổi tên / chuyển danh mục không cần đánh index lại sản phẩm.
+     */
+    static ProductDocument of(Product product, List<ProductVariant> variants,
+                              FacetDictionary dictionary, Function<BigDecimal, String> priceBucket) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, product.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, product.getBrand(), BRAND_WEIGHT);
+        addTerms(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+        Map<String, String> sizes = new LinkedHashMap<>();
+        Map<String, String> colors = new LinkedHashMap<>();
+        List<Variant> entries = new ArrayList<>();
+        for (ProductVariant variant : variants) {
+            if (Boolean.FALSE.equals(variant.getIsActive())) {
+                continue;
+            }
+            addTerms(weights, variant.getVariantName(), ATTRIBUTE_WEIGHT);
+            addTerms(weights, variant.getAttribute(), ATTRIBUTE_WEIGHT);
+            String[] sizeAndColor = parseAttribute(variant.getAttribute());
+            String sizeKey = sizeAndColor[0] != null ? normalize(sizeAndColor[0]) : null;
+            String colorKey = sizeAndColor[1] != null ? normalize(sizeAndColor[1]) : null;
+            if (sizeKey != null) {
+                sizes.putIfAbsent(sizeKey, sizeAndColor[0]);
+            }
+            if (colorKey != null) {
+                colors.putIfAbsent(colorKey, sizeAndColor[1]);
+            }
+            BigDecimal price = variant.getPrice();
+            if (price != null) {
+                minPrice = minPrice == null || price.compareTo(minPrice) < 0 ? price : minPrice;
+                maxPrice = maxPrice == null || price.compareTo(maxPrice) > 0 ? price : maxPrice;
+            } else {
+                price = product.getBasePrice();
+            }
+            entries.add(new Variant(sizeKey, colorKey, price,
+                    sizeKey != null ? dictionary.idOf(ProductSearchIndex.FACET_SIZE, sizeKey, sizeAndColor[0]) : -1,
+                    colorKey != null ? dictionary.idOf(ProductSearchIndex.FACET_COLOR, colorKey, sizeAndColor[1]) : -1,
+                    priceFacetId(price, dictionary, priceBucket)));
+        }
+        if (minPrice == null) {
+            minPrice = product.getBasePrice();
+            maxPrice = product.getBasePrice();
+        }
+        // Chưa có variant đang bán: lọc / đếm theo giá gốc của sản phẩm
+        if (entries.isEmpty() && minPrice != null) {
+            entries.add(new Variant(null, null, minPrice, -1, -1, priceFacetId(minPrice, dictionary, priceBucket)));
+        }
+
+        String brand = product.getBrand() != null && !product.getBrand().isBlank() ? product.getBrand().trim() : null;
+        int brandFacetId = brand != null ? dictionary.idOf(ProductSearchIndex.FACET_BRAND, normalize(brand), brand) : -1;
+
+        return new ProductDocument(product, minPrice, maxPrice, brand,
+                Collections.unmodifiableMap(sizes), Collections.unmodifiableMap(colors),
+                Collections.unmodifiableMap(weights), brandFacetId, List.copyOf(entries));
+    }
+
+    private static int priceFacetId(BigDecimal price, FacetDictionary dictionary, Function<BigDecimal, String> priceBucket) {
+        if (price == null) {
+            return -1;
+        }
+        String bucket = priceBucket.apply(price);
+        return dictionary.idOf(ProductSearchIndex.FACET_PRICE, bucket, bucket);
+    }
+
+    Integer productId() {
+        return product.getProductId();
+    }
+
+    Integer categoryId() {
+        return product.getCategoryId();
+    }
+
+    boolean isActive() {
+        return !Boolean.FALSE.equals(product.getIsActive());
+    }
+
+    /**
+     * Chữ thường, bỏ dấu tiếng Việt (đ -> d), tách theo ký tự không phải chữ / số.
+     * Dùng chung cho lúc đánh index và lúc tìm để "Giày Đỏ" khớp "giay do".
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Khóa facet: so khớp không phân biệt hoa thường / dấu ("Đen" = "den")
+    static String normalize(String text) {
+        String lower = text.trim().toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * attribute có 2 dạng: "42 - Đen" (trang admin) hoặc {"Size": 42, "Color": "Đen"} (API).
+     * @return [size, color], phần nào không có thì null
+     */
+    static String[] parseAttribute(String attribute) {
+        String[] result = new String[2];
+        if (attribute == null || attribute.isBlank()) {
+            return result;
+        }
+        String value = attribute.trim();
+        if (value.startsWith("{")) {
+            Matcher matcher = JSON_PAIR.matcher(value);
+            while (matcher.find()) {
+                String key = normalize(matcher.group(1));
+                String pairValue = matcher.group(2).trim();
+                if (pairValue.isEmpty()) {
+                    continue;
+                }
+                if (key.equals("size") || key.equals("kich thuoc") || key.equals("kich co")) {
+                    result[0] = pairValue;
+                } else if (key.equals("color") || key.equals("mau") || key.equals("mau sac")) {
+                    result[1] = pairValue;
+                }
+            }
+            return result;
+        }
+        String[] parts = value.split("\\s+-\\s+", 2);
+        result[0] = parts[0].isBlank() ? null : parts[0].trim();
+        result[1] = parts.length > 1 && !parts[1].isBlank() ? parts[1].trim() : null;
+        return result;
+    }
+
+    /**
+     * Một variant đang bán. Size, màu và giá được lọc trên cùng một variant:
+     * "size 42 màu Đỏ" không khớp sản phẩm chỉ có 42 - Đen và 40 - Đỏ.
+     * sizeKey / colorKey đã chuẩn hóa (null nếu không có); *FacetId = -1 nếu không có giá trị.
+     */
+    record Variant(String sizeKey, String colorKey, BigDecimal price,
+                   int sizeFacetId, int colorFacetId, int priceFacetId) {
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.fpl.edu.shoeStore.product.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fpl.edu.shoeStore.category.cache.CategoryTree;
+import com.fpl.edu.shoeStore.category.cache.CategoryTreeCache;
+import com.fpl.edu.shoeStore.category.dto.response.CategoryDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.request.ProductSearchRequest;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchHit;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchResponse;
+import com.fpl.edu.shoeStore.product.entity.Product;
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.mapper.ProductMapper;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index tìm kiếm sản phẩm trong bộ nhớ (inverted index): từ -> tập productId.
+ *
+ * - Dựng toàn bộ ở lần tìm đầu tiên (2 query: products + product_variants), sau đó cập nhật từng sản phẩm
+ *   sau commit khi product / variant thay đổi (reindexAfterCommit)
+ * - Từ khóa cuối khớp theo tiền tố (gõ tới đâu tìm tới đó), các từ trước khớp nguyên từ; mọi từ đều phải khớp
+ * - Từ khóa khớp tên danh mục thì mọi sản phẩm trong cây con của danh mục đó đều khớp (lấy từ CategoryTreeCache)
+ * - Size / màu / giá lọc theo từng variant (cùng một variant phải khớp cả 3); facet brand / size / color /
+ *   khoảng giá đếm trên toàn bộ kết quả sau lọc, size / color / giá chỉ tính các variant khớp bộ lọc
+ *
+ * Đọc song song dưới read lock, cập nhật dưới write lock (chỉ vài micro giây cho một sản phẩm).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    public static final String FACET_BRAND = "brand";
+    public static final String FACET_SIZE = "size";
+    public static final String FACET_COLOR = "color";
+    public static final String FACET_PRICE = "price";
+
+    private static final double PREFIX_FACTOR = 0.5;
+
+    // Có từ khóa: điểm cao trước; cùng điểm (hoặc không có từ khóa): mới nhất trước như danh sách sản phẩm
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(Comparator.comparingLong((Scored scored) -> scored.document().createdAt).reversed())
+            .thenComparing(Comparator.comparingInt((Scored scored) -> scored.document().productId()).reversed());
+
+    private final ProductMapper productMapper;
+    private final ProductVariantMapper productVariantMapper;
+    private final CategoryTreeCache categoryTreeCache;
+
+    // Mốc chia khoảng giá (VND), tăng dần
+    @Value("${product.search.price-buckets:500000,1000000,2000000,5000000}")
+    private String priceBuckets;
+
+    private final FacetDictionary facetDictionary = new FacetDictionary();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    private volatile boolean loaded;
+    private volatile boolean building;
+    private final Set<Integer> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile CategoryTerms categoryTerms;
+    private List<BigDecimal> bucketBounds;
+    private List<String> bucketLabels;
+
+    @PostConstruct
+    public void init() {
+        bucketBounds = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(BigDecimal::new)
+                .sorted()
+                .collect(Collectors.toList());
+        // "0-500000", "500000-1000000", ..., "5000000+"
+        List<String> labels = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : bucketBounds) {
+            labels.add(lower.toPlainString() + "-" + bound.toPlainString());
+            lower = bound;
+        }
+        labels.add(lower.toPlainString() + "+");
+        bucketLabels = List.copyOf(labels);
+    }
+
+    public ProductSearchResponse search(ProductSearchRequest request) {
+        long start = System.nanoTime();
+        int page = Math.max(request.getPage(), 1);
+        int size = request.getSize() < 1 ? 20 : Math.min(request.getSize(), 100);
+        ensureLoaded();
+
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryTerms terms = categoryTerms(tree);
+        Set<Integer> categoryIds = request.getCategoryId() == null ? null
+                : new HashSet<>(request.isIncludeDescendants()
+                        ? tree.getSubtreeIds(request.getCategoryId())
+                        : List.of(request.getCategoryId()));
+        Filter filter = new Filter(request, categoryIds);
+
+        int offset = (page - 1) * size;
+        // Chỉ giữ offset + size kết quả tốt nhất (heap), không sắp xếp toàn bộ tập kết quả
+        PriorityQueue<Scored> top = new PriorityQueue<>(RANKING.reversed());
+        int total = 0;
+        Facets facets = new Facets();
+        lock.readLock().lock();
+        try {
+            List<String> tokens = ProductDocument.tokenize(request.getQ());
+            List<TermMatch> matches = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                matches.add(match(tokens.get(i), i == tokens.size() - 1, terms));
+            }
+
+            for (ProductDocument document : candidates(matches)) {
+                if (!filter.accepts(document) || !matchesAll(document, matches)) {
+                    continue;
+                }
+                total++;
+                facets.add(document, filter);
+                Scored scored = new Scored(document, score(document, matches));
+                if (top.size() < offset + size) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) < 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<ProductSearchHit> content = offset < ranked.size()
+                ? ranked.subList(offset, ranked.size()).stream()
+                        .map(ProductSearchIndex::toHit)
+                        .collect(Collectors.toList())
+                : List.of();
+
+        return ProductSearchResponse.builder()
+                .content(content)
+                .pageNumber(page)
+                .pageSize(size)
+                .totalElements(total)
+                .totalPages((int) Math.ceil((double) total / size))
+                .facets(facets.toMap())
+                .tookMs((System.nanoTime() - start) / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Đánh index lại sản phẩm sau khi transaction hiện tại commit (hoặc ngay nếu không có transaction).
+     * Gọi sau mọi thay đổi product / variant; sản phẩm đã bị xóa thì được bỏ khỏi index.
+     */
+    public void reindexAfterCommit(Integer productId) {
+        if (productId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reindexQuietly(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reindexQuietly(productId);
+            }
+        });
+    }
+
+    /**
+     * Bỏ toàn bộ index, lần tìm sau dựng lại từ DB. Dùng sau khi ghi hàng loạt (import),
+     * khi đó dựng lại 1 lần rẻ hơn đánh index lại từng sản phẩm.
+     */
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        loaded = false;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void reindex(Integer productId) {
+        if (building) {
+            // Đang dựng toàn bộ: có thể đã đọc bản cũ, dựng xong sẽ đánh index lại sản phẩm này
+            changedDuringBuild.add(productId);
+        }
+        if (!loaded) {
+            return;
+        }
+        Product product = productMapper.findById(productId);
+        ProductDocument document = product == null ? null
+                : ProductDocument.of(product, productVariantMapper.findByProductId(productId), facetDictionary, this::priceBucket);
+
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+            if (document != null) {
+                segment.add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long generation = invalidations.get();
+        building = true;
+        changedDuringBuild.clear();
+        try {
+            Map<Integer, List<ProductVariant>> variantsByProduct = productVariantMapper.findAll().stream()
+                    .filter(variant -> variant.getProductId() != null)
+                    .collect(Collectors.groupingBy(ProductVariant::getProductId));
+            Segment built = new Segment();
+            for (Product product : productMapper.findAll()) {
+                built.add(ProductDocument.of(product, variantsByProduct.getOrDefault(product.getProductId(), List.of()),
+                        facetDictionary, this::priceBucket));
+            }
+
+            lock.writeLock().lock();
+            try {
+                segment = built;
+                // Bị invalidate trong lúc dựng thì bản vừa dựng có thể thiếu dữ liệu mới: vẫn dùng, nhưng lần tìm sau dựng lại
+                loaded = invalidations.get() == generation;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            building = false;
+        }
+
+        for (Integer productId : new ArrayList<>(changedDuringBuild)) {
+            changedDuringBuild.remove(productId);
+            reindexQuietly(productId);
+        }
+        log.info("Product search index built: {} products in {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    private void reindexQuietly(Integer productId) {
+        try {
+            reindex(productId);
+        } catch (RuntimeException e) {
+            // Index lệch 1 sản phẩm tốt hơn làm hỏng request vừa commit; bỏ cờ loaded để lần tìm sau dựng lại
+            log.error("Product search reindex failed for product {}: {}", productId, e.getMessage());
+            loaded = false;
+        }
+    }
+
+    private TermMatch match(String token, boolean prefix, CategoryTerms terms) {
+        Collection<Set<Integer>> postingSets = prefix
+                ? segment.postings.subMap(token, true, token + Character.MAX_VALUE, true).values()
+                : singletonOrEmpty(segment.postings.get(token));
+        Set<Integer> categoryIds = new HashSet<>();
+        (prefix ? terms.subtreeIds().subMap(token, true, token + Character.MAX_VALUE, true).values()
+                : singletonOrEmpty(terms.subtreeIds().get(token))).forEach(categoryIds::addAll);
+
+        // Chỉ 1 posting list: dùng thẳng tập của index (chỉ đọc, đang giữ read lock)
+        Set<Integer> textIds;
+        if (postingSets.size() == 1) {
+            textIds = postingSets.iterator().next();
+        } else {
+            textIds = new HashSet<>();
+            postingSets.forEach(textIds::addAll);
+        }
+        if (categoryIds.isEmpty()) {
+            return new TermMatch(token, prefix, textIds, textIds, categoryIds);
+        }
+        Set<Integer> productIds = new HashSet<>(textIds);
+        for (Integer categoryId : categoryIds) {
+            productIds.addAll(segment.byCategory.getOrDefault(categoryId, Set.of()));
+        }
+        return new TermMatch(token, prefix, productIds, textIds, categoryIds);
+    }
+
+    private static <T> Collection<T> singletonOrEmpty(T value) {
+        return value != null ? List.of(value) : List.of();
+    }
+
+    // Không có từ khóa: duyệt mọi sản phẩm; có từ khóa: duyệt tập nhỏ nhất, các từ khác kiểm tra sau
+    private Collection<ProductDocument> candidates(List<TermMatch> matches) {
+        if (matches.isEmpty()) {
+            return segment.documents.values();
+        }
+        TermMatch smallest = matches.stream().min(Comparator.comparingInt(match -> match.productIds().size())).get();
+        List<ProductDocument> documents = new ArrayList<>(smallest.productIds().size());
+        for (Integer productId : smallest.productIds()) {
+            ProductDocument document = segment.documents.get(productId);
+            if (document != null) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    private static boolean matchesAll(ProductDocument document, List<TermMatch> matches) {
+        for (TermMatch match : matches) {
+            if (!match.productIds().contains(document.productId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double score(ProductDocument document, List<TermMatch> matches) {
+        double score = 0;
+        for (TermMatch match : matches) {
+            Integer weight = document.termWeights.get(match.token());
+            if (weight != null) {
+                score += weight;
+            } else if (match.prefix() && match.textIds().contains(document.productId())) {
+                // Chỉ quét từ của sản phẩm khi chắc chắn có từ bắt đầu bằng tiền tố (không phải khớp qua danh mục)
+                int best = 0;
+                for (Map.Entry<String, Integer> entry : document.termWeights.entrySet()) {
+                    if (entry.getKey().startsWith(match.token())) {
+                        best = Math.max(best, entry.getValue());
+                    }
+                }
+                score += best * PREFIX_FACTOR;
+            }
+            if (match.categoryIds().contains(document.categoryId())) {
+                score += ProductDocument.CATEGORY_WEIGHT;
+            }
+        }
+        return score;
+    }
+
+    // Từ trong tên danh mục -> id danh mục đó + con cháu; dựng lại khi CategoryTreeCache có cây mới
+    private CategoryTerms categoryTerms(CategoryTree tree) {
+        CategoryTerms current = categoryTerms;
+        if (current != null && current.tree() == tree) {
+            return current;
+        }
+        NavigableMap<String, Set<Integer>> subtreeIds = new TreeMap<>();
+        for (CategoryDtoResponse category : tree.filter(null, null)) {
+            for (String token : ProductDocument.tokenize(category.getName())) {
+                subtreeIds.computeIfAbsent(token, t -> new HashSet<>()).addAll(tree.getSubtreeIds(category.getCategoryId()));
+            }
+        }
+        CategoryTerms built = new CategoryTerms(tree, subtreeIds);
+        categoryTerms = built;
+        return built;
+    }
+
+    private String priceBucket(BigDecimal price) {
+        int index = 0;
+        while (index < bucketBounds.size() && price.compareTo(bucketBounds.get(index)) >= 0) {
+            index++;
+        }
+        return bucketLabels.get(index);
+    }
+
+    private static ProductSearchHit toHit(Scored scored) {
+        ProductDocument document = scored.document();
+        Product product = document.product;
+        return ProductSearchHit.builder()
+                .productId(product.getProductId())
+                .categoryId(product.getCategoryId())
+                .title(product.getTitle())
+                .url(product.getUrl())
+                .brand(document.brand)
+                .defaultImage(product.getDefaultImage())
+                .minPrice(document.minPrice)
+                .maxPrice(document.maxPrice)
+                .sizes(List.copyOf(document.sizes.values()))
+                .colors(List.copyOf(document.colors.values()))
+                .score(scored.score())
+                .build();
+    }
+
+    /**
+     * Dữ liệu index; chỉ đọc / sửa khi giữ lock tương ứng.
+     */
+    private static final class Segment {
+        private final Map<Integer, ProductDocument> documents = new HashMap<>();
+        private final NavigableMap<String, Set<Integer>> postings = new TreeMap<>();
+        private final Map<Integer, Set<Integer>> byCategory = new HashMap<>();
+
+        private void add(ProductDocument document) {
+            Integer productId = document.productId();
+            documents.put(productId, document);
+            for (String term : document.termWeights.keySet()) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(productId);
+            }
+            if (document.categoryId() != null) {
+                byCategory.computeIfAbsent(document.categoryId(), id -> new HashSet<>()).add(productId);
+            }
+        }
+
+        private void remove(Integer productId) {
+            ProductDocument document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.termWeights.keySet()) {
+                Set<Integer> ids = postings.get(term);
+                if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            Set<Integer> ids = document.categoryId() != null ? byCategory.get(document.categoryId()) : null;
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                byCategory.remove(document.categoryId());
+            }
+        }
+    }
+
+    private final class Filter {
+        private final Set<Integer> categoryIds;
+        private final String brandKey;
+        private final String sizeKey;
+        private final String colorKey;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final boolean filtersVariants;
+
+        private Filter(ProductSearchRequest request, Set<Integer> categoryIds) {
+            this.categoryIds = categoryIds;
+            this.brandKey = key(request.getBrand());
+            this.sizeKey = key(request.getShoeSize());
+            this.colorKey = key(request.getColor());
+            this.minPrice = request.getMinPrice();
+            this.maxPrice = request.getMaxPrice();
+            this.filtersVariants = sizeKey != null || colorKey != null || minPrice != null || maxPrice != null;
+        }
+
+        private boolean accepts(ProductDocument document) {
+            if (!document.isActive()) {
+                return false;
+            }
+            if (categoryIds != null && !categoryIds.contains(document.categoryId())) {
+                return false;
+            }
+            if (brandKey != null && !brandKey.equals(document.brandKey)) {
+                return false;
+            }
+            if (!filtersVariants) {
+                return true;
+            }
+            for (ProductDocument.Variant variant : document.variants) {
+                if (accepts(variant)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean accepts(ProductDocument.Variant variant) {
+            if (sizeKey != null && !sizeKey.equals(variant.sizeKey())) {
+                return false;
+            }
+            if (colorKey != null && !colorKey.equals(variant.colorKey())) {
+                return false;
+            }
+            if (minPrice != null && (variant.price() == null || variant.price().compareTo(minPrice) < 0)) {
+                return false;
+            }
+            return maxPrice == null || (variant.price() != null && variant.price().compareTo(maxPrice) <= 0);
+        }
+
+        private String key(String value) {
+            return value == null || value.isBlank() ? null : ProductDocument.normalize(value);
+        }
+    }
+
+    // Đếm theo id trong FacetDictionary: mỗi sản phẩm chỉ tăng vài phần tử mảng
+    private final class Facets {
+        private final int[] counts = new int[facetDictionary.size()];
+        // Sản phẩm cuối cùng đã đếm mỗi giá trị: nhiều variant cùng size / màu chỉ tính 1 lần cho sản phẩm
+        private final int[] countedFor = new int[counts.length];
+        private int documentSeq;
+
+        private void add(ProductDocument document, Filter filter) {
+            documentSeq++;
+            count(document.brandFacetId);
+            for (ProductDocument.Variant variant : document.variants) {
+                if (filter.accepts(variant)) {
+                    count(variant.sizeFacetId());
+                    count(variant.colorFacetId());
+                    count(variant.priceFacetId());
+                }
+            }
+        }
+
+        // id mới hơn mảng đếm (thêm vào dictionary sau khi bắt đầu tìm) thì bỏ qua
+        private void count(int facetId) {
+            if (facetId >= 0 && facetId < counts.length && countedFor[facetId] != documentSeq) {
+                countedFor[facetId] = documentSeq;
+                counts[facetId]++;
+            }
+        }
+
+        // Giá trị nhiều sản phẩm nhất lên trước
+        private Map<String, Map<String, Integer>> toMap() {
+            Map<String, Map<String, Integer>> values = new LinkedHashMap<>();
+            for (String facet : List.of(FACET_BRAND, FACET_SIZE, FACET_COLOR, FACET_PRICE)) {
+                values.put(facet, new HashMap<>());
+            }
+            for (int facetId = 0; facetId < counts.length; facetId++) {
+                if (counts[facetId] > 0) {
+                    values.get(facetDictionary.facet(facetId)).merge(facetDictionary.label(facetId), counts[facetId], Integer::sum);
+                }
+            }
+            Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+            values.forEach((facet, counted) -> result.put(facet, counted.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new))));
+            return result;
+        }
+    }
+
+    // productIds: khớp qua nội dung hoặc qua danh mục; textIds: chỉ khớp qua nội dung sản phẩm
+    private record TermMatch(String token, boolean prefix, Set<Integer> productIds, Set<Integer> textIds,
+                             Set<Integer> categoryIds) {
+    }
+
+    private record Scored(ProductDocument document, double score) {
+    }
+
+    private record CategoryTerms(CategoryTree tree, NavigableMap<String, Set<Integer>> subtreeIds) {
+    }
+}
@@ -0,0 +1,374 @@
+package com.fpl.edu.shoeStore.product.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fpl.edu.shoeStore.category.cache.CategoryTree;
+import com.fpl.edu.shoeStore.category.cache.CategoryTreeCache;
+import com.fpl.edu.shoeStore.common.cache.CacheStore;
+import com.fpl.edu.shoeStore.common.cache.CountCache;
+import com.fpl.edu.shoeStore.common.handler.PageResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductImportError;
+import com.fpl.edu.shoeStore.product.dto.response.ProductImportResult;
+import com.fpl.edu.shoeStore.product.entity.Product;
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.importer.ImportFormat;
+import com.fpl.edu.shoeStore.product.importer.ImportRecord;
+import com.fpl.edu.shoeStore.product.importer.ImportRecordReader;
+import com.fpl.edu.shoeStore.product.importer.ProductImportRow;
+import com.fpl.edu.shoeStore.product.mapper.ProductMapper;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import com.fpl.edu.shoeStore.product.search.ProductSearchIndex;
+import com.fpl.edu.shoeStore.product.service.ProductImportService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import sản phẩm hàng loạt theo pipeline:
+ *
+ * - Đọc file theo luồng (1 thread), gom thành lô batch-size dòng
+ * - Chuyển kiểu + kiểm tra từng dòng song song trên validation pool; lô sau được kiểm tra trong lúc lô trước đang ghi
+ * - Ghi mỗi lô trong 1 transaction bằng executor BATCH của MyBatis (JDBC batch, không round-trip từng dòng);
+ *   SKU / product_code được tra theo lô bằng IN (...)
+ * - Lô ghi lỗi thì chỉ các dòng của lô đó bị báo lỗi, các lô khác vẫn được import
+ *
+ * Cache sản phẩm được xóa sau mỗi lô, index tìm kiếm được dựng lại 1 lần khi import xong.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int DEFAULT_USER_ID = 1;
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final CountCache countCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final CacheStore<Integer, ProductDtoResponse> productByIdCache;
+    private final CacheStore<Integer, ProductDetailDtoResponse> productDetailCache;
+    private final CacheStore<List<Object>, PageResponse<ProductDtoResponse>> productPageCache;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    // 0 = số CPU
+    @Value("${product.import.validation-threads:0}")
+    private int validationThreads;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    // Không khai báo thành bean: bean SqlSessionTemplate sẽ thay template mặc định (SIMPLE) của mọi mapper
+    private SqlSessionTemplate batchSession;
+    private TransactionTemplate transactionTemplate;
+    private ForkJoinPool validationPool;
+
+    @PostConstruct
+    public void init() {
+        batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        validationPool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        validationPool.shutdownNow();
+    }
+
+    @Override
+    public ProductImportResult importProducts(InputStream input, ImportFormat format, Integer userId) throws IOException {
+        long start = System.nanoTime();
+        ImportJob job = new ImportJob(userId != null ? userId : DEFAULT_USER_ID);
+        CompletableFuture<List<Checked>> pending = null;
+        try (ImportRecordReader reader = new ImportRecordReader(input, format)) {
+            List<ImportRecord> chunk = new ArrayList<>(batchSize);
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                job.totalRows++;
+                chunk.add(record);
+                if (chunk.size() >= batchSize) {
+                    pending = validateThenWritePrevious(chunk, pending, job);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending = validateThenWritePrevious(chunk, pending, job);
+            }
+            if (pending != null) {
+                write(pending.join(), job);
+            }
+        } finally {
+            if (job.importedVariants > 0) {
+                productSearchIndex.invalidate();
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Product import: {} rows, {} products, {} variants, {} failed in {} ms",
+                job.totalRows, job.importedProducts, job.importedVariants, job.failedRows, elapsedMs);
+        return ProductImportResult.builder()
+                .totalRows(job.totalRows)
+                .importedProducts(job.importedProducts)
+                .importedVariants(job.importedVariants)
+                .failedRows(job.failedRows)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(elapsedMs == 0 ? job.totalRows : job.totalRows * 1000.0 / elapsedMs)
+                .errors(job.errors)
+                .errorsTruncated(job.failedRows > job.errors.size())
+                .build();
+    }
+
+    // Bắt đầu kiểm tra lô mới trên validation pool, trong lúc đó ghi lô trước (đã kiểm tra xong hoặc đang chờ)
+    private CompletableFuture<List<Checked>> validateThenWritePrevious(List<ImportRecord> chunk,
+                                                                      CompletableFuture<List<Checked>> previous,
+                                                                      ImportJob job) {
+        CategoryTree tree = categoryTreeCache.get();
+        CompletableFuture<List<Checked>> next = CompletableFuture.supplyAsync(
+                () -> chunk.parallelStream().map(record -> check(record, tree)).collect(Collectors.toList()),
+                validationPool);
+        if (previous != null) {
+            write(previous.join(), job);
+        }
+        return next;
+    }
+
+    private Checked check(ImportRecord record, CategoryTree tree) {
+        try {
+            ProductImportRow row = ProductImportRow.of(record, objectMapper);
+            if (tree.get(row.getCategoryId()) == null) {
+                return new Checked(record.line(), row, "category_id " + row.getCategoryId() + " không tồn tại");
+            }
+            return new Checked(record.line(), row, null);
+        } catch (IllegalArgumentException e) {
+            return new Checked(record.line(), null, e.getMessage());
+        }
+    }
+
+    private void write(List<Checked> checked, ImportJob job) {
+        List<ProductImportRow> rows = new ArrayList<>(checked.size());
+        for (Checked item : checked) {
+            if (item.error() != null) {
+                job.fail(item.line(), item.row(), item.error());
+            } else if (!job.variantCodes.add(item.row().getVariantCode())) {
+                job.fail(item.line(), item.row(), "product_variant_code trùng với dòng trước trong file");
+            } else {
+                rows.add(item.row());
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> writeChunk(rows, job));
+        } catch (RuntimeException e) {
+            log.warn("Product import batch failed ({} rows): {}", rows.size(), e.getMessage());
+            String message = "Lỗi ghi lô: " + rootMessage(e);
+            rows.forEach(row -> job.fail(row.getLine(), row, message));
+            return;
+        }
+
+        job.productIds.putAll(result.productIds());
+        job.importedProducts += result.createdProducts();
+        job.importedVariants += result.insertedVariants();
+        result.rejected().forEach((row, message) -> job.fail(row.getLine(), row, message));
+        evictCaches(result.touchedProductIds());
+    }
+
+    // Chạy trong transaction của lô; mọi query đi qua batchSession (không trộn executor SIMPLE / BATCH trong 1 transaction)
+    private ChunkResult writeChunk(List<ProductImportRow> rows, ImportJob job) {
+        ProductMapper productMapper = batchSession.getMapper(ProductMapper.class);
+        ProductVariantMapper variantMapper = batchSession.getMapper(ProductVariantMapper.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. SKU đã có trong DB
+        Map<ProductImportRow, String> rejected = new LinkedHashMap<>();
+        Set<String> existingSkus = new HashSet<>(variantMapper.findExistingCodes(
+                rows.stream().map(ProductImportRow::getVariantCode).collect(Collectors.toList())));
+        List<ProductImportRow> accepted = new ArrayList<>(rows.size());
+        for (ProductImportRow row : rows) {
+            if (existingSkus.contains(row.getVariantCode())) {
+                rejected.put(row, "product_variant_code đã tồn tại");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        // 2. product_code chưa gặp ở lô trước: tra DB, chưa có thì tạo mới từ dòng đầu tiên của product_code đó
+        Map<String, Integer> productIds = new HashMap<>();
+        List<String> unknownCodes = accepted.stream()
+                .map(ProductImportRow::getProductCode)
+                .filter(code -> !job.productIds.containsKey(code))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!unknownCodes.isEmpty()) {
+            for (Product product : productMapper.findByProductCodes(unknownCodes)) {
+                productIds.putIfAbsent(product.getProductCode(), product.getProductId());
+            }
+        }
+        Map<String, Product> created = new LinkedHashMap<>();
+        for (ProductImportRow row : accepted) {
+            String code = row.getProductCode();
+            if (!job.productIds.containsKey(code) && !productIds.containsKey(code) && !created.containsKey(code)) {
+                created.put(code, toProduct(row, job.userId, now));
+            }
+        }
+        for (Product product : created.values()) {
+            productMapper.insert(product);
+        }
+        batchSession.flushStatements();
+        resolveCreatedIds(created, productMapper);
+        created.forEach((code, product) -> productIds.put(code, product.getProductId()));
+
+        // 3. Variants
+        Set<Integer> touched = new HashSet<>();
+        for (ProductImportRow row : accepted) {
+            Integer productId = job.productIds.getOrDefault(row.getProductCode(), productIds.get(row.getProductCode()));
+            variantMapper.insert(toVariant(row, productId, job.userId, now));
+            touched.add(productId);
+        }
+        batchSession.flushStatements();
+
+        return new ChunkResult(productIds, created.size(), accepted.size(), rejected, touched);
+    }
+
+    // Khóa sinh tự động được gán sau flushStatements nếu driver trả về generated keys cho batch;
+    // nếu không thì tra lại theo product_code (vừa insert trong transaction này)
+    private static void resolveCreatedIds(Map<String, Product> created, ProductMapper productMapper) {
+        List<String> missing = created.values().stream()
+                .filter(product -> product.getProductId() == null)
+                .map(Product::getProductCode)
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Product product : productMapper.findByProductCodes(missing)) {
+            Product pending = created.get(product.getProductCode());
+            if (pending != null && pending.getProductId() == null) {
+                pending.setProductId(product.getProductId());
+            }
+        }
+    }
+
+    private static Product toProduct(ProductImportRow row, int userId, LocalDateTime now) {
+        return Product.builder()
+                .categoryId(row.getCategoryId())
+                .title(row.getTitle())
+                .url(row.getUrl())
+                .productCode(row.getProductCode())
+                .description(row.getDescription())
+                .basePrice(row.getBasePrice())
+                .isActive(true)
+                .brand(row.getBrand())
+                .condition(row.getCondition())
+                .defaultImage(row.getDefaultImage())
+                .status(row.getStatus())
+                .createAt(now)
+                .updateAt(now)
+                .createBy(userId)
+                .updateBy(userId)
+                .build();
+    }
+
+    private static ProductVariant toVariant(ProductImportRow row, Integer productId, int userId, LocalDateTime now) {
+        return ProductVariant.builder()
+                .productId(productId)
+                .variantName(row.getVariantName())
+                .productVariantCode(row.getVariantCode())
+                .price(row.getPrice())
+                .stockQty(row.getStockQty())
+                .isActive(true)
+                .createdAt(now)
+                .updatedAt(now)
+                .weightGrams(row.getWeightGrams())
+                .attribute(row.getAttribute())
+                .image(row.getImage())
+                .createBy(userId)
+                .updateBy(userId)
+                .build();
+    }
+
+    private void evictCaches(Set<Integer> productIds) {
+        productIds.forEach(productId -> {
+            productByIdCache.invalidate(productId);
+            productDetailCache.invalidate(productId);
+        });
+        productPageCache.invalidateAll();
+        countCache.invalidate(CountCache.PRODUCTS);
+        countCache.invalidate(CountCache.VARIANTS);
+        categoryTreeCache.invalidate();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private record Checked(long line, ProductImportRow row, String error) {
+    }
+
+    private record ChunkResult(Map<String, Integer> productIds, int createdProducts, int insertedVariants,
+                               Map<ProductImportRow, String> rejected, Set<Integer> touchedProductIds) {
+    }
+
+    // Trạng thái của 1 lần import, chỉ thread đọc / ghi truy cập
+    private final class ImportJob {
+        private final int userId;
+        private final Map<String, Integer> productIds = new HashMap<>();   // product_code -> product_id đã biết
+        private final Set<String> variantCodes = new HashSet<>();          // SKU đã gặp trong file
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedProducts;
+        private long importedVariants;
+        private long failedRows;
+
+        private ImportJob(int userId) {
+            this.userId = userId;
+        }
+
+        private void fail(long line, ProductImportRow row, String message) {
+            failedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(ProductImportError.builder()
+                        .line(line)
+                        .productCode(row != null ? row.getProductCode() : null)
+                        .variantCode(row != null ? row.getVariantCode() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
@@ -1,27 +1,35 @@
 package com.fpl.edu.shoeStore.product.service.impl;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fpl.edu.shoeStore.category.cache.CategoryTreeCache;
+import com.fpl.edu.shoeStore.common.cache.CacheStats;
+import com.fpl.edu.shoeStore.common.cache.CacheStore;
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.product.convert.ProductConverter;
 import com.fpl.edu.shoeStore.product.dto.request.ProductDtoRequest;
+import com.fpl.edu.shoeStore.product.dto.request.ProductSearchRequest;
+import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
 import com.fpl.edu.shoeStore.product.dto.response.ProductDtoResponse;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchResponse;
 import com.fpl.edu.shoeStore.product.entity.Product;
 import com.fpl.edu.shoeStore.product.mapper.ProductMapper;
+import com.fpl.edu.shoeStore.product.search.ProductSearchIndex;
 import com.fpl.edu.shoeStore.product.service.ProductService;
 import com.fpl.edu.shoeStore.product.service.ProductVariantService; // 👈 1. Import Service con
+import com.fpl.edu.shoeStore.product.upload.ImageStorage;
+import com.fpl.edu.shoeStore.product.upload.StoredImage;
 
 import lombok.RequiredArgsConstructor;
 
@@ -31,34 +39,33 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductMapper productMapper;
     private final ProductVariantService productVariantService; // 👈 2. Inject Service con
-
-    // Hàm saveFile giữ nguyên
+    private final CountCache countCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final CacheStore<Integer, ProductDtoResponse> productByIdCache;
+    private final CacheStore<Integer, ProductDetailDtoResponse> productDetailCache;
+    private final CacheStore<List<Object>, PageResponse<ProductDtoResponse>> productPageCache;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    // Ảnh được lưu trước, ngoài transaction: ghi đĩa chậm không giữ transaction / kết nối DB.
+    // Transaction lỗi thì ảnh vẫn nằm trên đĩa, lần upload lại cùng ảnh sẽ dùng lại file đó (tên theo hash)
     private String saveFile(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            return null;
-        }
-        try {
-            Path uploadDir = Paths.get("uploads");
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path filePath = uploadDir.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            return "/uploads/" + fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Lỗi khi lưu file ảnh: " + e.getMessage());
-        }
+        StoredImage image = imageStorage.store(file);
+        return image == null ? null : image.url();
     }
 
     @Override
-    @Transactional
     public ProductDtoResponse createProduct(ProductDtoRequest request, MultipartFile file) {
+        String imagePath = saveFile(file);
+        return transactionTemplate.execute(status -> insertProduct(request, imagePath));
+    }
+
+    private ProductDtoResponse insertProduct(ProductDtoRequest request, String imagePath) {
         // 1. Tạo Product Entity (Cha)
         Product product = ProductConverter.toEntity(request);
 
-        // 2. Xử lý ảnh
-        String imagePath = saveFile(file);
+        // 2. Xử lý ảnh (đã lưu trước khi mở transaction)
         if (imagePath != null) {
             product.setDefaultImage(imagePath);
         }
@@ -67,6 +74,8 @@ public class ProductServiceImpl implements ProductService {
         
         // 3. Insert Product -> Có ID
         productMapper.insert(product);
+        evictProductCaches(null);
+        productSearchIndex.reindexAfterCommit(product.getProductId());
 
         // 4. 👇 GỌI SERVICE CON ĐỂ TẠO VARIANTS (QUAN TRỌNG)
         // Kiểm tra xem request có gửi kèm danh sách variants không
@@ -79,8 +88,12 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Transactional
     public ProductDtoResponse updateProduct(Integer id, ProductDtoRequest request, MultipartFile file) {
+        String newImagePath = saveFile(file);
+        return transactionTemplate.execute(status -> modifyProduct(id, request, newImagePath));
+    }
+
+    private ProductDtoResponse modifyProduct(Integer id, ProductDtoRequest request, String newImagePath) {
         Product existing = productMapper.findById(id);
         if (existing == null) {
             throw new RuntimeException("Không tìm thấy Product id = " + id);
@@ -95,13 +108,14 @@ public class ProductServiceImpl implements ProductService {
         if (request.getUpdateBy() != null) existing.setUpdateBy(request.getUpdateBy());
         
         // Chỉ update ảnh nếu người dùng chọn file mới
-        String newImagePath = saveFile(file);
         if (newImagePath != null) {
             existing.setDefaultImage(newImagePath);
         }
 
         existing.setUpdateAt(LocalDateTime.now());
         productMapper.update(existing);
+        evictProductCaches(id);
+        productSearchIndex.reindexAfterCommit(id);
 
         // (Tùy chọn) Nếu muốn update cả variants trong cùng API này thì gọi variantService ở đây
         // Nhưng thường update variants sẽ làm ở API riêng hoặc logic phức tạp hơn.
@@ -119,14 +133,26 @@ public class ProductServiceImpl implements ProductService {
         // Lưu ý: Nếu DB không có ON DELETE CASCADE, bạn cần xóa variants trước:
         // productVariantService.deleteByProductId(id); (Cần thêm hàm này bên Service con nếu cần)
         
-        return productMapper.deleteById(id);
+        int deleted = productMapper.deleteById(id);
+        evictProductCaches(id);
+        productSearchIndex.reindexAfterCommit(id);
+        return deleted;
     }
 
-    // Các hàm findById, findByTitle, findAllPaged giữ nguyên
     @Override
     public ProductDtoResponse findById(Integer id) {
-        Product product = productMapper.findById(id);
-        return product == null ? null : ProductConverter.toResponse(product);
+        return productByIdCache.get(id, key -> {
+            Product product = productMapper.findById(key);
+            return product == null ? null : ProductConverter.toResponse(product);
+        });
+    }
+
+    @Override
+    public ProductDetailDtoResponse findDetailById(Integer id) {
+        return productDetailCache.get(id, key -> {
+            Product product = productMapper.findDetailById(key);
+            return product == null ? null : ProductConverter.toDetailResponse(product);
+        });
     }
 
     @Override
@@ -136,10 +162,40 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public PageResponse<ProductDtoResponse> findAllPaged(Integer categoryId, String title, String status, Boolean isActive, int page, int size) {
+    public PageResponse<ProductDtoResponse> findAllPaged(Integer categoryId, boolean includeDescendants, String title, String status, Boolean isActive, int page, int size, boolean approximateTotal) {
+        // Cây con lấy từ bảng closure trong bộ nhớ; key theo danh sách id đã mở rộng nên đổi cây danh mục không trả trang cũ
+        List<Integer> categoryIds = categoryId == null ? null
+                : includeDescendants ? categoryTreeCache.get().getSubtreeIds(categoryId) : List.of(categoryId);
+        // Arrays.asList vì filter có thể null
+        List<Object> key = Arrays.asList(categoryIds, title, status, isActive, page, size, approximateTotal);
+        return productPageCache.get(key, k -> loadPage(categoryIds, title, status, isActive, page, size, approximateTotal));
+    }
+
+    @Override
+    public ProductSearchResponse search(ProductSearchRequest request) {
+        return productSearchIndex.search(request);
+    }
+
+    @Override
+    public List<CacheStats> getCacheStats() {
+        return List.of(productByIdCache.stats(), productDetailCache.stats(), productPageCache.stats());
+    }
+
+    private PageResponse<ProductDtoResponse> loadPage(List<Integer> categoryIds, String title, String status, Boolean isActive, int page, int size, boolean approximateTotal) {
         int offset = (page - 1) * size;
-        List<Product> products = productMapper.findAllPaged(categoryId, title, status, isActive, offset, size);
-        long totalElements = productMapper.countAll(categoryId, title, status, isActive);
+        long totalElements;
+        List<Product> products;
+        if (approximateTotal) {
+            // Đọc dư 1 dòng để biết còn trang sau, không chạy COUNT
+            products = productMapper.findAllPaged(categoryIds, title, status, isActive, offset, size + 1);
+            totalElements = countCache.estimate(CountCache.PRODUCTS, offset, products.size(), categoryIds, title, status, isActive);
+            if (products.size() > size) products = products.subList(0, size);
+        } else {
+            products = productMapper.findAllPaged(categoryIds, title, status, isActive, offset, size);
+            totalElements = countCache.count(CountCache.PRODUCTS,
+                    () -> productMapper.countAll(categoryIds, title, status, isActive),
+                    categoryIds, title, status, isActive);
+        }
         
         List<ProductDtoResponse> content = products.stream()
                 .map(ProductConverter::toResponse)
@@ -153,6 +209,31 @@ public class ProductServiceImpl implements ProductService {
                 .pageSize(size)
                 .totalElements(totalElements)
                 .totalPages(totalPages)
+                .approximateTotal(approximateTotal)
                 .build();
     }
-}
\ No newline at end of file
+
+    // Xóa cache ngay và sau commit (tránh request đọc giữa chừng transaction lưu lại dữ liệu cũ).
+    // Trang danh sách không biết chứa product nào nên xóa hết; productId = null khi tạo mới.
+    private void evictProductCaches(Integer productId) {
+        Runnable evict = () -> {
+            if (productId != null) {
+                productByIdCache.invalidate(productId);
+                productDetailCache.invalidate(productId);
+            }
+            productPageCache.invalidateAll();
+        };
+        evict.run();
+        countCache.invalidate(CountCache.PRODUCTS);
+        // Số sản phẩm theo danh mục nằm trong cây danh mục
+        categoryTreeCache.invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
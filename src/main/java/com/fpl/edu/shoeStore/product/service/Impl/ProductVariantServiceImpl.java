@@ -1,18 +1,33 @@
   package com.fpl.edu.shoeStore.product.service.impl;
 
+     import java.security.SecureRandom;
+     import java.util.ArrayList;
+     import java.util.HashSet;
+     import java.util.LinkedHashMap;
      import java.util.List;
-import java.util.UUID;
+     import java.util.Map;
+     import java.util.Set;
+     import java.util.function.Consumer;
      import java.util.stream.Collectors;
 
      import org.springframework.stereotype.Service;
      import org.springframework.transaction.annotation.Transactional;
+     import org.springframework.transaction.support.TransactionSynchronization;
+     import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+     import com.fpl.edu.shoeStore.common.cache.CacheStore;
+     import com.fpl.edu.shoeStore.common.cache.CountCache;
+     import com.fpl.edu.shoeStore.common.handler.PageResponse;
 
      import com.fpl.edu.shoeStore.product.convert.ProductVariantConverter;
      import com.fpl.edu.shoeStore.product.dto.request.ProductVariantDtoRequest;
+     import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
      import com.fpl.edu.shoeStore.product.dto.response.ProductVariantDtoResponse;
      import com.fpl.edu.shoeStore.product.entity.ProductVariant;
      import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+     import com.fpl.edu.shoeStore.product.search.ProductSearchIndex;
      import com.fpl.edu.shoeStore.product.service.ProductVariantService;
+     import com.fpl.edu.shoeStore.product.service.StockLedgerService;
 
      import lombok.RequiredArgsConstructor;
 
@@ -20,13 +35,27 @@ import java.util.UUID;
      @RequiredArgsConstructor
      public class ProductVariantServiceImpl implements ProductVariantService {
 
+         // Số dòng tối đa trong 1 câu INSERT nhiều dòng (giới hạn kích thước câu SQL / max_allowed_packet)
+         private static final int MAX_ROWS_PER_INSERT = 500;
+         // Base32 không có 0/O, 1/I dễ nhầm khi đọc mã
+         private static final String CODE_ALPHABET = "23456789ABCDEFGHJKLMNPQRSTUVWXYZ";
+         private static final int CODE_RANDOM_LENGTH = 8;
+         private static final int MAX_CODE_ATTEMPTS = 5;
+         private static final SecureRandom RANDOM = new SecureRandom();
+
          private final ProductVariantMapper productVariantMapper;
+         private final StockLedgerService stockLedgerService;
+         private final ProductSearchIndex productSearchIndex;
+         private final CacheStore<Integer, ProductDetailDtoResponse> productDetailCache;
+         private final CountCache countCache;
 
          @Override
          @Transactional
          public ProductVariantDtoResponse createVariant(ProductVariantDtoRequest request) {
              ProductVariant variant = ProductVariantConverter.toEntity(request);
              productVariantMapper.insert(variant);
+             evictVariantCaches(variant.getProductId());
+             productSearchIndex.reindexAfterCommit(variant.getProductId());
              return ProductVariantConverter.toResponse(variant);
          }
 
@@ -37,17 +66,17 @@ import java.util.UUID;
             return;
         }
 
+        List<ProductVariant> variants = new ArrayList<>(requests.size());
+        List<ProductVariant> withoutCode = new ArrayList<>();
         for (ProductVariantDtoRequest req : requests) {
             ProductVariant variant = ProductVariantConverter.toEntity(req);
             
             // 1. Gán khóa ngoại (ID của Product cha)
             variant.setProductId(productId);
 
-            // 2. Tự động sinh mã SKU nếu Frontend không gửi lên
+            // 2. Variant chưa có mã SKU: sinh mã sau, cho cả lô cùng lúc
             if (variant.getProductVariantCode() == null || variant.getProductVariantCode().trim().isEmpty()) {
-                // Ví dụ: PVC-17150000-AB12
-                String autoCode = "PVC-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-                variant.setProductVariantCode(autoCode);
+                withoutCode.add(variant);
             }
             
             // 3. Set mặc định người tạo (nếu chưa có)
@@ -57,10 +86,64 @@ import java.util.UUID;
             if (variant.getUpdateBy() == null) {
                 variant.setUpdateBy(1);
             }
+            variants.add(variant);
+        }
+        assignVariantCodes(productId, withoutCode, variants);
 
-            // 4. Lưu vào DB
-            productVariantMapper.insert(variant);
+        // 4. Lưu vào DB: mỗi lô 1 câu INSERT nhiều dòng thay vì 1 câu / variant
+        for (int from = 0; from < variants.size(); from += MAX_ROWS_PER_INSERT) {
+            productVariantMapper.insertBatch(variants.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, variants.size())));
         }
+        evictVariantCaches(productId);
+        productSearchIndex.reindexAfterCommit(productId);
+    }
+
+    // Sinh mã SKU dạng PVC-{productId}-{8 ký tự ngẫu nhiên}: 40 bit ngẫu nhiên từ SecureRandom,
+    // kiểm tra trùng với DB và với các mã trong cùng lô bằng 1 query, trùng thì sinh lại
+    private void assignVariantCodes(Integer productId, List<ProductVariant> withoutCode, List<ProductVariant> variants) {
+        if (withoutCode.isEmpty()) {
+            return;
+        }
+        Set<String> used = new HashSet<>();
+        for (ProductVariant variant : variants) {
+            if (variant.getProductVariantCode() != null) {
+                used.add(variant.getProductVariantCode());
+            }
+        }
+        List<ProductVariant> pending = withoutCode;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt >= MAX_CODE_ATTEMPTS) {
+                throw new IllegalStateException("Không sinh được mã SKU không trùng cho product id: " + productId);
+            }
+            // Mã ứng viên -> variant: kiểm tra trùng trong lô O(1)
+            Map<String, ProductVariant> candidates = new LinkedHashMap<>();
+            for (ProductVariant variant : pending) {
+                String code;
+                do {
+                    code = randomVariantCode(productId);
+                } while (used.contains(code) || candidates.containsKey(code));
+                candidates.put(code, variant);
+            }
+            Set<String> taken = new HashSet<>(productVariantMapper.findExistingCodes(new ArrayList<>(candidates.keySet())));
+            List<ProductVariant> retry = new ArrayList<>();
+            candidates.forEach((code, variant) -> {
+                if (taken.contains(code)) {
+                    retry.add(variant);
+                } else {
+                    variant.setProductVariantCode(code);
+                    used.add(code);
+                }
+            });
+            pending = retry;
+        }
+    }
+
+    private static String randomVariantCode(Integer productId) {
+        StringBuilder code = new StringBuilder("PVC-").append(productId).append('-');
+        for (int i = 0; i < CODE_RANDOM_LENGTH; i++) {
+            code.append(CODE_ALPHABET.charAt(RANDOM.nextInt(CODE_ALPHABET.length())));
+        }
+        return code.toString();
     }
 
          @Override
@@ -74,7 +157,20 @@ import java.util.UUID;
              ProductVariant variant = ProductVariantConverter.toEntity(request);
              variant.setVariantId(variantId);
              variant.setProductId(existingVariant.getProductId());
+             // SKU nóng: stock_qty trên DB đang được sổ tồn kho flush theo chênh lệch, ghi đè sẽ làm mất lượt giữ hàng.
+             // Giữ nguyên cột (update dùng COALESCE) và chuyển giá trị admin nhập thành chênh lệch so với DB
+             Integer requestedStock = variant.getStockQty();
+             boolean tracked = stockLedgerService.isTracked(variantId);
+             if (tracked) {
+                 variant.setStockQty(null);
+             }
              productVariantMapper.update(variant);
+             if (tracked && requestedStock != null) {
+                 int current = existingVariant.getStockQty() != null ? existingVariant.getStockQty() : 0;
+                 stockLedgerService.adjust(variantId, requestedStock - current);
+             }
+             evictVariantCaches(existingVariant.getProductId());
+             productSearchIndex.reindexAfterCommit(existingVariant.getProductId());
              if (variant.getProductVariantCode() == null) {
         variant.setProductVariantCode(existingVariant.getProductVariantCode());
     }
@@ -90,6 +186,8 @@ import java.util.UUID;
                  throw new RuntimeException("Product variant not found with id: " + variantId);
              }
              productVariantMapper.deleteById(variantId);
+             evictVariantCaches(existingVariant.getProductId());
+             productSearchIndex.reindexAfterCommit(existingVariant.getProductId());
          }
 
          @Override
@@ -117,6 +215,47 @@ import java.util.UUID;
                      .collect(Collectors.toList());
          }
 
+         @Override
+         public PageResponse<ProductVariantDtoResponse> getVariantsPage(Integer productId, Boolean isActive, Boolean inStock,
+                                                                       String codePrefix, Integer afterId, int size) {
+             String prefix = escapeLike(codePrefix);
+             // Lấy dư 1 dòng để biết còn trang sau hay không
+             List<ProductVariant> variants = productVariantMapper.findPage(productId, isActive, inStock, prefix, afterId, size + 1);
+             boolean hasNext = variants.size() > size;
+             if (hasNext) {
+                 variants = variants.subList(0, size);
+             }
+
+             long totalElements = countCache.count(CountCache.VARIANTS,
+                     () -> productVariantMapper.countFiltered(productId, isActive, inStock, prefix),
+                     productId, isActive, inStock, prefix);
+
+             return PageResponse.<ProductVariantDtoResponse>builder()
+                     .content(variants.stream()
+                             .map(ProductVariantConverter::toResponse)
+                             .collect(Collectors.toList()))
+                     .pageNumber(0) // Không xác định số trang trong chế độ cursor
+                     .pageSize(size)
+                     .totalElements(totalElements)
+                     .totalPages((int) Math.ceil((double) totalElements / size))
+                     .nextCursor(hasNext ? String.valueOf(variants.get(variants.size() - 1).getVariantId()) : null)
+                     .build();
+         }
+
+         @Override
+         public void forEachVariant(Integer productId, Boolean isActive, Boolean inStock, String codePrefix,
+                                    Consumer<ProductVariantDtoResponse> action) {
+             productVariantMapper.streamFiltered(productId, isActive, inStock, escapeLike(codePrefix),
+                     context -> action.accept(ProductVariantConverter.toResponse(context.getResultObject())));
+         }
+
+         private static String escapeLike(String value) {
+             if (value == null || value.isBlank()) {
+                 return null;
+             }
+             return value.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+         }
+
          @Override
          public ProductVariantDtoResponse getVariantByCode(String productVariantCode) {
              ProductVariant variant = productVariantMapper.findByCode(productVariantCode);
@@ -133,6 +272,37 @@ import java.util.UUID;
              if (existingVariant == null) {
                  throw new RuntimeException("Product variant not found with id: " + variantId);
              }
+             // SKU nóng: trừ/cộng trên sổ tồn kho trong bộ nhớ trước, DB được cập nhật theo lô
+             if (stockLedgerService.isTracked(variantId)) {
+                 if (quantity < 0) {
+                     if (!stockLedgerService.reserve(Map.of(variantId, -quantity)).isEmpty()) {
+                         throw new RuntimeException("Không đủ tồn kho cho variant id: " + variantId);
+                     }
+                 } else if (quantity > 0) {
+                     stockLedgerService.restock(Map.of(variantId, quantity));
+                 }
+                 evictVariantCaches(existingVariant.getProductId());
+                 return;
+             }
              productVariantMapper.updateStock(variantId, quantity);
+             evictVariantCaches(existingVariant.getProductId());
+         }
+
+         // Xóa count đã cache và chi tiết sản phẩm (product + variants) ngay và sau khi transaction kết thúc,
+         // tránh request đọc giữa chừng lưu lại danh sách variant cũ
+         private void evictVariantCaches(Integer productId) {
+             countCache.invalidate(CountCache.VARIANTS);
+             if (productId == null) {
+                 return;
+             }
+             productDetailCache.invalidate(productId);
+             if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                 TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                     @Override
+                     public void afterCompletion(int status) {
+                         productDetailCache.invalidate(productId);
+                     }
+                 });
+             }
          }
      }
@@ -0,0 +1,230 @@
+package com.fpl.edu.shoeStore.product.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import com.fpl.edu.shoeStore.product.service.StockLedgerService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sổ tồn kho trong bộ nhớ với ghi dồn (write-behind) xuống product_variants.
+ *
+ * - available: tồn kho khả dụng, trừ bằng CAS (không bao giờ âm) -> không tranh chấp khóa dòng trên DB
+ * - pending: chênh lệch đã commit nhưng chưa ghi xuống DB, gom lại và flush theo lô mỗi flush-interval-ms
+ * - Khi khởi động: đọc lại stock_qty từ DB (reconcile); khi tắt: flush phần còn lại
+ * - Sau khi khởi động, mọi thay đổi (kể cả admin sửa tồn kho) đều là chênh lệch cộng dồn, không bao giờ ghi đè available
+ *
+ * Lưu ý: chênh lệch chưa flush sẽ mất nếu tiến trình bị kill đột ngột, nên flush-interval-ms cần nhỏ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+    private final ProductVariantMapper productVariantMapper;
+
+    @Value("${stock.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.ledger.variant-ids:}")
+    private String variantIds;
+
+    @Value("${stock.ledger.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final Map<Integer, AtomicLong> available = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        List<Integer> hotVariantIds = Arrays.stream(variantIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Integer::valueOf)
+                .distinct()
+                .collect(Collectors.toList());
+        if (hotVariantIds.isEmpty()) {
+            return;
+        }
+
+        // Reconcile: tồn kho trong bộ nhớ bắt đầu từ giá trị thật trên DB
+        for (ProductVariant variant : productVariantMapper.findByIds(hotVariantIds)) {
+            long stock = variant.getStockQty() != null ? variant.getStockQty() : 0;
+            available.put(variant.getVariantId(), new AtomicLong(stock));
+            pending.put(variant.getVariantId(), new AtomicLong());
+        }
+        log.info("Stock ledger enabled for variants {}", available.keySet());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isTracked(Integer variantId) {
+        return variantId != null && available.containsKey(variantId);
+    }
+
+    @Override
+    public List<Integer> reserve(Map<Integer, Integer> quantitiesByVariantId) {
+        StockReservationServiceImpl.requirePositive(quantitiesByVariantId);
+        Map<Integer, Integer> reserved = new TreeMap<>();
+        List<Integer> failedVariantIds = new ArrayList<>();
+
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantitiesByVariantId).entrySet()) {
+            if (tryDecrement(entry.getKey(), entry.getValue())) {
+                reserved.put(entry.getKey(), entry.getValue());
+            } else {
+                failedVariantIds.add(entry.getKey());
+            }
+        }
+
+        if (!failedVariantIds.isEmpty()) {
+            // Tất cả hoặc không gì cả: trả lại phần đã trừ
+            reserved.forEach((variantId, quantity) -> available.get(variantId).addAndGet(quantity));
+            return failedVariantIds;
+        }
+
+        afterCompletion(
+                () -> reserved.forEach((variantId, quantity) -> pending.get(variantId).addAndGet(-quantity)),
+                () -> reserved.forEach((variantId, quantity) -> available.get(variantId).addAndGet(quantity)));
+        return List.of();
+    }
+
+    @Override
+    public List<Integer> findShortages(Map<Integer, Integer> quantitiesByVariantId) {
+        return new TreeMap<>(quantitiesByVariantId).entrySet().stream()
+                .filter(entry -> !isTracked(entry.getKey()) || available.get(entry.getKey()).get() < entry.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void restock(Map<Integer, Integer> quantitiesByVariantId) {
+        Map<Integer, Integer> quantities = new TreeMap<>(quantitiesByVariantId);
+        // Chỉ cộng vào available sau commit để không bán phần hàng có thể bị rollback
+        afterCompletion(
+                () -> quantities.forEach((variantId, quantity) -> {
+                    available.get(variantId).addAndGet(quantity);
+                    pending.get(variantId).addAndGet(quantity);
+                }),
+                () -> { });
+    }
+
+    @Override
+    public synchronized void flush() {
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        pending.forEach((variantId, delta) -> {
+            long value = delta.getAndSet(0);
+            if (value != 0) {
+                deltas.put(variantId, (int) value);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            productVariantMapper.applyStockDeltas(deltas);
+        } catch (RuntimeException e) {
+            // Giữ lại chênh lệch cho lần flush sau
+            deltas.forEach((variantId, delta) -> pending.get(variantId).addAndGet(delta));
+            throw e;
+        }
+    }
+
+    @Override
+    public void adjust(Integer variantId, int delta) {
+        if (!isTracked(variantId) || delta == 0) {
+            return;
+        }
+        // Chỉ cộng dồn (không set): lượt giữ hàng chưa commit và chênh lệch đang flush vẫn được tính đúng
+        afterCompletion(() -> {
+            available.get(variantId).addAndGet(delta);
+            pending.get(variantId).addAndGet(delta);
+        }, () -> { });
+    }
+
+    private boolean tryDecrement(Integer variantId, int quantity) {
+        AtomicLong counter = available.get(variantId);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            long current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Stock ledger flush failed, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fpl.edu.shoeStore.product.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import com.fpl.edu.shoeStore.product.service.StockLedgerService;
+import com.fpl.edu.shoeStore.product.service.StockReservationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Giữ hàng bằng SQL có điều kiện thay vì so sánh tồn kho trong Java.
+ *
+ * 1. Khóa các dòng variant theo thứ tự variant_id tăng dần (mọi checkout khóa cùng thứ tự -> không deadlock)
+ * 2. Kiểm tra tồn kho trên dữ liệu đã khóa, trả về chính xác các variant bị thiếu
+ * 3. Trừ tồn kho cho tất cả variant trong 1 câu UPDATE có điều kiện stock_qty >= quantity
+ *
+ * Variant "nóng" được quản lý bởi StockLedgerService thì giữ hàng trong bộ nhớ, không khóa dòng trên DB.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final ProductVariantMapper productVariantMapper;
+    private final StockLedgerService stockLedgerService;
+
+    @Override
+    @Transactional
+    public List<Integer> reserve(Map<Integer, Integer> quantitiesByVariantId) {
+        if (quantitiesByVariantId == null || quantitiesByVariantId.isEmpty()) {
+            return List.of();
+        }
+        // Số lượng âm sẽ thành cộng tồn kho ở câu UPDATE / sổ tồn kho
+        requirePositive(quantitiesByVariantId);
+
+        // TreeMap: thứ tự variant_id cố định cho cả câu khóa và câu UPDATE
+        TreeMap<Integer, Integer> ledgerQuantities = new TreeMap<>();
+        TreeMap<Integer, Integer> quantities = new TreeMap<>();
+        quantitiesByVariantId.forEach((variantId, quantity) -> {
+            if (stockLedgerService.isTracked(variantId)) {
+                ledgerQuantities.put(variantId, quantity);
+            } else {
+                quantities.put(variantId, quantity);
+            }
+        });
+
+        List<Integer> failedVariantIds = new ArrayList<>();
+        if (!quantities.isEmpty()) {
+            Map<Integer, ProductVariant> locked = productVariantMapper
+                    .lockStockByIds(new ArrayList<>(quantities.keySet())).stream()
+                    .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity()));
+
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                ProductVariant variant = locked.get(entry.getKey());
+                if (variant == null || variant.getStockQty() == null || variant.getStockQty() < entry.getValue()) {
+                    failedVariantIds.add(entry.getKey());
+                }
+            }
+        }
+
+        if (!ledgerQuantities.isEmpty()) {
+            // Chỉ trừ trong bộ nhớ khi phần DB đã chắc chắn đủ hàng
+            failedVariantIds.addAll(failedVariantIds.isEmpty()
+                    ? stockLedgerService.reserve(ledgerQuantities)
+                    : stockLedgerService.findShortages(ledgerQuantities));
+        }
+        if (!failedVariantIds.isEmpty()) {
+            return failedVariantIds;
+        }
+
+        if (!quantities.isEmpty()) {
+            int updated = productVariantMapper.reserveStock(quantities);
+            if (updated != quantities.size()) {
+                // Không thể xảy ra khi các dòng đã bị khóa, nhưng không bao giờ để trừ kho một phần
+                throw new IllegalStateException("Giữ hàng thất bại: chỉ cập nhật " + updated + "/" + quantities.size() + " variant");
+            }
+        }
+        return List.of();
+    }
+
+    static void requirePositive(Map<Integer, Integer> quantitiesByVariantId) {
+        quantitiesByVariantId.forEach((variantId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Số lượng giữ hàng phải lớn hơn 0 (Variant ID: " + variantId + ")");
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void release(Map<Integer, Integer> quantitiesByVariantId) {
+        TreeMap<Integer, Integer> ledgerQuantities = new TreeMap<>();
+        new TreeMap<>(quantitiesByVariantId).forEach((variantId, quantity) -> {
+            if (stockLedgerService.isTracked(variantId)) {
+                ledgerQuantities.put(variantId, quantity);
+            } else {
+                productVariantMapper.updateStock(variantId, quantity);
+            }
+        });
+        if (!ledgerQuantities.isEmpty()) {
+            stockLedgerService.restock(ledgerQuantities);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.fpl.edu.shoeStore.product.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fpl.edu.shoeStore.product.dto.response.ProductImportResult;
+import com.fpl.edu.shoeStore.product.importer.ImportFormat;
+
+public interface ProductImportService {
+
+    /**
+     * Import sản phẩm + variant từ file CSV / NDJSON (mỗi dòng 1 variant), đọc theo luồng và ghi theo lô.
+     * Dòng lỗi được bỏ qua và báo lại trong kết quả, các dòng khác vẫn được import.
+     *
+     * @throws IOException nếu không đọc được input
+     */
+    ProductImportResult importProducts(InputStream input, ImportFormat format, Integer userId) throws IOException;
+}
@@ -1,10 +1,16 @@
 package com.fpl.edu.shoeStore.product.service;
 
+import java.util.List;
+
 import org.springframework.web.multipart.MultipartFile;
 
+     import com.fpl.edu.shoeStore.common.cache.CacheStats;
      import com.fpl.edu.shoeStore.common.handler.PageResponse;
      import com.fpl.edu.shoeStore.product.dto.request.ProductDtoRequest;
+     import com.fpl.edu.shoeStore.product.dto.request.ProductSearchRequest;
+     import com.fpl.edu.shoeStore.product.dto.response.ProductDetailDtoResponse;
      import com.fpl.edu.shoeStore.product.dto.response.ProductDtoResponse;
+     import com.fpl.edu.shoeStore.product.dto.response.ProductSearchResponse;
 
      public interface ProductService {
          ProductDtoResponse createProduct(ProductDtoRequest request,  MultipartFile file);
@@ -15,14 +21,22 @@ import org.springframework.web.multipart.MultipartFile;
 
          ProductDtoResponse findById(Integer id);
 
+         ProductDetailDtoResponse findDetailById(Integer id);               // Product + variants, null nếu không có
+
          ProductDtoResponse findByTitle(String title);                      // Đổi từ findByName
 
          PageResponse<ProductDtoResponse> findAllPaged(
              Integer categoryId,
+             boolean includeDescendants, // true = lấy cả sản phẩm thuộc danh mục con cháu của categoryId
              String title,
              String status,
              Boolean isActive,
              int page,
-             int size
+             int size,
+             boolean approximateTotal   // true = bỏ qua COUNT, totalElements chỉ là ước lượng
          );
+
+         ProductSearchResponse search(ProductSearchRequest request);       // Tìm kiếm + facet trên index trong bộ nhớ
+
+         List<CacheStats> getCacheStats();                                  // Số liệu hit/miss của cache sản phẩm
      }
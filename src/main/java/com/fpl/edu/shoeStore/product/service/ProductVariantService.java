@@ -1,6 +1,9 @@
 package com.fpl.edu.shoeStore.product.service;
 
      import java.util.List;
+     import java.util.function.Consumer;
+
+     import com.fpl.edu.shoeStore.common.handler.PageResponse;
 
      import com.fpl.edu.shoeStore.product.dto.request.ProductVariantDtoRequest;
      import com.fpl.edu.shoeStore.product.dto.response.ProductVariantDtoResponse;
@@ -19,6 +22,20 @@ package com.fpl.edu.shoeStore.product.service;
 
          List<ProductVariantDtoResponse> getAllVariants();
 
+         // Keyset pagination: afterId lấy từ nextCursor của trang trước, null = trang đầu
+         PageResponse<ProductVariantDtoResponse> getVariantsPage(
+             Integer productId,
+             Boolean isActive,
+             Boolean inStock,
+             String codePrefix,
+             Integer afterId,
+             int size
+         );
+
+         // Duyệt toàn bộ variant khớp filter theo luồng, bộ nhớ không phụ thuộc số lượng variant
+         void forEachVariant(Integer productId, Boolean isActive, Boolean inStock, String codePrefix,
+                             Consumer<ProductVariantDtoResponse> action);
+
          ProductVariantDtoResponse getVariantByCode(String productVariantCode);
 
          void updateStock(Integer variantId, Integer quantity);                                         // Đổi Long → Integer
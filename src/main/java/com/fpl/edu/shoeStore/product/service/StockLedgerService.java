@@ -0,0 +1,46 @@
+package com.fpl.edu.shoeStore.product.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sổ tồn kho trong bộ nhớ cho các SKU "nóng" (drop / flash sale).
+ * Giữ hàng được trừ trên bộ đếm trong bộ nhớ, chênh lệch đã commit được ghi dồn xuống DB theo lô.
+ * Tắt mặc định: stock.ledger.enabled=true và stock.ledger.variant-ids=1,2,3 để bật.
+ */
+public interface StockLedgerService {
+
+    /**
+     * Variant có được quản lý bởi sổ tồn kho trong bộ nhớ không
+     */
+    boolean isTracked(Integer variantId);
+
+    /**
+     * Giữ hàng cho các variant đang được quản lý (tất cả hoặc không gì cả).
+     * Nếu transaction hiện tại rollback, số lượng được trả lại tự động.
+     * @return danh sách variantId không đủ hàng (rỗng nếu thành công)
+     */
+    List<Integer> reserve(Map<Integer, Integer> quantitiesByVariantId);
+
+    /**
+     * Kiểm tra (không trừ) các variant không đủ hàng
+     */
+    List<Integer> findShortages(Map<Integer, Integer> quantitiesByVariantId);
+
+    /**
+     * Cộng lại tồn kho (hủy đơn, nhập hàng). Chỉ có hiệu lực sau khi transaction commit.
+     */
+    void restock(Map<Integer, Integer> quantitiesByVariantId);
+
+    /**
+     * Ghi toàn bộ chênh lệch đang chờ xuống bảng product_variants
+     */
+    void flush();
+
+    /**
+     * Cộng / trừ tồn kho của variant đang được quản lý theo chênh lệch, sau khi transaction commit
+     * (admin sửa stock_qty: ghi theo chênh lệch thay vì ghi đè để không làm mất lượt giữ hàng / lần flush đang chạy).
+     * available có thể thành âm, khi đó mọi lượt giữ hàng mới đều thất bại cho tới khi nhập thêm hàng.
+     */
+    void adjust(Integer variantId, int delta);
+}
@@ -0,0 +1,23 @@
+package com.fpl.edu.shoeStore.product.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StockReservationService {
+
+    /**
+     * Giữ hàng (trừ tồn kho) cho toàn bộ giỏ hàng một cách nguyên tử.
+     * Tất cả variant đều được trừ, hoặc không variant nào bị trừ.
+     * Phải được gọi trong transaction của đơn hàng để khóa dòng được giữ tới khi commit.
+     *
+     * @param quantitiesByVariantId số lượng cần giữ theo variantId
+     * @return danh sách variantId không đủ hàng hoặc không tồn tại (rỗng nếu giữ hàng thành công)
+     * @throws IllegalArgumentException nếu có số lượng <= 0
+     */
+    List<Integer> reserve(Map<Integer, Integer> quantitiesByVariantId);
+
+    /**
+     * Trả lại tồn kho đã giữ (ví dụ khi hủy đơn hàng).
+     */
+    void release(Map<Integer, Integer> quantitiesByVariantId);
+}
@@ -0,0 +1,240 @@
+package com.fpl.edu.shoeStore.product.upload;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lưu ảnh upload vào thư mục uploads/ (được phục vụ tại /uploads/**).
+ *
+ * - Ghi theo luồng bằng FileChannel.transferFrom vào file tạm, băm SHA-256 trong lúc ghi (không đọc lại file)
+ * - Tên file = SHA-256 của nội dung: upload trùng nội dung dùng lại file cũ, URL không đổi nên cache được lâu
+ * - File tạm được đổi tên (atomic move) sang tên chính thức: không có request nào đọc được file đang ghi dở
+ * - Thumbnail (upload.thumbnail.sizes, cạnh dài tối đa) tạo sau trên pool giới hạn, không làm chậm request;
+ *   hàng đợi đầy thì bỏ qua thumbnail của ảnh đó (ảnh gốc vẫn dùng được)
+ *
+ * Gọi ngoài transaction: ghi đĩa chậm không được giữ kết nối DB.
+ */
+@Slf4j
+@Component
+public class ImageStorage {
+
+    public static final String URL_PREFIX = "/uploads/";
+    private static final String THUMBNAIL_DIR = "thumbs";
+    private static final Set<String> EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp");
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    @Value("${upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${upload.thumbnail.sizes:200,600}")
+    private String thumbnailSizes;
+
+    @Value("${upload.thumbnail.threads:2}")
+    private int thumbnailThreads;
+
+    @Value("${upload.thumbnail.queue-capacity:100}")
+    private int thumbnailQueueCapacity;
+
+    private Path root;
+    private Path spoolDir;
+    private int[] sizes;
+    private ThreadPoolExecutor thumbnailer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        spoolDir = root.resolve(".tmp");
+        Files.createDirectories(spoolDir);
+        sizes = Arrays.stream(thumbnailSizes.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .filter(size -> size > 0)
+                .toArray();
+
+        thumbnailer = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(thumbnailQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-thumbnailer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> log.warn("Thumbnail queue full, skipping thumbnails"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        thumbnailer.shutdownNow();
+    }
+
+    /**
+     * Lưu ảnh, trả về ngay khi ảnh gốc đã nằm trên đĩa (thumbnail tạo sau).
+     *
+     * @return null nếu không có file
+     * @throws IllegalArgumentException nếu đuôi file không phải ảnh được hỗ trợ
+     * @throws UncheckedIOException nếu ghi file lỗi
+     */
+    public StoredImage store(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        String extension = extension(file.getOriginalFilename());
+        Path spool = spoolDir.resolve(UUID.randomUUID() + ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (InputStream input = file.getInputStream();
+                 ReadableByteChannel source = Channels.newChannel(new DigestInputStream(input, digest));
+                 FileChannel target = FileChannel.open(spool, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                }
+            }
+
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path stored = root.resolve(name);
+            boolean deduplicated = Files.exists(stored);
+            if (!deduplicated) {
+                // Cùng tên = cùng nội dung nên ghi đè khi 2 request upload cùng ảnh một lúc cũng không sao
+                Files.move(spool, stored, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Ảnh trùng cũng lên lịch: bù thumbnail còn thiếu (lần trước bị bỏ do hàng đợi đầy / lỗi)
+            scheduleThumbnails(stored, name);
+            return new StoredImage(URL_PREFIX + name, name, size, deduplicated);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lỗi khi lưu file ảnh: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    /**
+     * URL thumbnail của ảnh đã lưu; có thể chưa tồn tại ngay sau khi upload (đang tạo).
+     */
+    public String thumbnailUrl(String name, int size) {
+        return URL_PREFIX + THUMBNAIL_DIR + "/" + size + "/" + name;
+    }
+
+    public int[] getThumbnailSizes() {
+        return sizes.clone();
+    }
+
+    private void scheduleThumbnails(Path image, String name) {
+        if (sizes.length > 0) {
+            thumbnailer.execute(() -> generateThumbnails(image, name));
+        }
+    }
+
+    void generateThumbnails(Path image, String name) {
+        int[] missing = Arrays.stream(sizes)
+                .filter(size -> !Files.exists(thumbnailPath(name, size)))
+                .toArray();
+        if (missing.length == 0) {
+            return;
+        }
+        try {
+            BufferedImage source = ImageIO.read(image.toFile());
+            if (source == null) {
+                // Định dạng ImageIO không đọc được (vd webp): chỉ dùng ảnh gốc
+                log.debug("No thumbnail reader for {}", name);
+                return;
+            }
+            String format = name.substring(name.lastIndexOf('.') + 1);
+            for (int size : missing) {
+                writeThumbnail(source, format, size, thumbnailPath(name, size));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Thumbnail generation failed for {}: {}", name, e.getMessage());
+        }
+    }
+
+    private Path thumbnailPath(String name, int size) {
+        return root.resolve(THUMBNAIL_DIR).resolve(String.valueOf(size)).resolve(name);
+    }
+
+    private void writeThumbnail(BufferedImage source, String format, int size, Path target) throws IOException {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean opaque = format.equals("jpg") || format.equals("jpeg");
+        BufferedImage thumbnail = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path spool = spoolDir.resolve(UUID.randomUUID() + ".part");
+        try {
+            if (ImageIO.write(thumbnail, format, spool.toFile())) {
+                Files.move(spool, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    private static String extension(String filename) {
+        int dot = filename == null ? -1 : filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Chỉ hỗ trợ ảnh " + String.join(", ", EXTENSIONS.stream().sorted().toList()));
+        }
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.fpl.edu.shoeStore.product.upload;
+
+/**
+ * Ảnh đã lưu.
+ *
+ * @param url          URL chuẩn dạng /uploads/{sha256}.{ext}, cùng nội dung luôn ra cùng URL
+ * @param name         tên file ({sha256}.{ext})
+ * @param sizeBytes    dung lượng file
+ * @param deduplicated true nếu nội dung đã có sẵn (không ghi thêm file mới)
+ */
+public record StoredImage(String url, String name, long sizeBytes, boolean deduplicated) {
+}
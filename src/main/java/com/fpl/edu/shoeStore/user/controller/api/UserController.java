@@ -31,12 +31,13 @@ public class UserController {
             @RequestParam(required = false) Integer roleId,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
         try {
             PageResponse<UserDtoResponse> pageResponse = userService.findAllPaged(
                     userId, username, fullName, email, phone,
-                    roleId, status, page, size
+                    roleId, status, page, size, approximateTotal
             );
 
             return ResponseEntity.ok(ApiResponse.<PageResponse<UserDtoResponse>>builder()
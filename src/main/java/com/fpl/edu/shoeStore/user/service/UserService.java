@@ -19,7 +19,8 @@ public interface UserService {
             Integer roleId,
             String status,        // Đổi từ Boolean sang String (active/blocked/deleted)
             int page,
-            int size
+            int size,
+            boolean approximateTotal   // true = bỏ qua COUNT, totalElements chỉ là ước lượng
     );
 
     UserDtoResponse createUser(UserDtoRequest request);
@@ -2,11 +2,16 @@ package com.fpl.edu.shoeStore.user.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fpl.edu.shoeStore.auth.security.RefreshTokenStore;
+import com.fpl.edu.shoeStore.auth.security.RevokedUserList;
+import com.fpl.edu.shoeStore.auth.security.TokenPrincipalCache;
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.user.convert.UserConverter;
 import com.fpl.edu.shoeStore.user.dto.request.UserDtoRequest;
@@ -22,6 +27,10 @@ import lombok.RequiredArgsConstructor;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
+    private final CountCache countCache;
+    private final TokenPrincipalCache tokenPrincipalCache;
+    private final RevokedUserList revokedUserList;
+    private final RefreshTokenStore refreshTokenStore;
 
     // Nếu bạn chưa cấu hình BCryptPasswordEncoder bean thì có thể comment dòng này lại
     private final PasswordEncoder passwordEncoder; 
@@ -47,6 +56,7 @@ public class UserServiceImpl implements UserService {
 
         // 4. Insert vào DB
         userMapper.insert(user);
+        countCache.invalidate(CountCache.USERS);
 
         // 5. Trả về kết quả (Lúc này user đã có ID do DB sinh ra)
         return UserConverter.toDto(user);
@@ -60,6 +70,9 @@ public class UserServiceImpl implements UserService {
         if (existingUser == null) {
             throw new RuntimeException("Không tìm thấy User có ID: " + id);
         }
+        String previousUsername = existingUser.getUsername();
+        String previousStatus = existingUser.getStatus();
+        int previousRoleId = existingUser.getRoleId();
 
         // 2. Update từng trường (Chỉ update nếu request có gửi lên)
         if (request.getUsername() != null) existingUser.setUsername(request.getUsername());
@@ -80,6 +93,21 @@ public class UserServiceImpl implements UserService {
 
         // 3. Lưu xuống DB
         userMapper.update(existingUser);
+        countCache.invalidate(CountCache.USERS);
+        // Trạng thái / quyền / mật khẩu có thể đã đổi: bỏ principal đã cache của các token cũ
+        tokenPrincipalCache.evictUser(previousUsername);
+        // Token stateless mang roleName/status cũ trong claims -> thu hồi khi các giá trị này đổi
+        boolean passwordChanged = request.getPasswordHash() != null && !request.getPasswordHash().isBlank();
+        if (passwordChanged
+                || !Objects.equals(previousUsername, existingUser.getUsername())
+                || !Objects.equals(previousStatus, existingUser.getStatus())
+                || previousRoleId != existingUser.getRoleId()) {
+            revokedUserList.revoke(previousUsername);
+        }
+        // Refresh token: đổi mật khẩu / trạng thái thì buộc đăng nhập lại trên mọi thiết bị
+        if (passwordChanged || !Objects.equals(previousStatus, existingUser.getStatus())) {
+            refreshTokenStore.revokeAllForUser(previousUsername);
+        }
 
         // 4. Trả về dữ liệu mới nhất
         return UserConverter.toDto(existingUser);
@@ -93,7 +121,12 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("Không tìm thấy User để xóa");
         }
         // Xóa cứng
-        return userMapper.deleteById(id);
+        int deleted = userMapper.deleteById(id);
+        countCache.invalidate(CountCache.USERS);
+        tokenPrincipalCache.evictUser(existingUser.getUsername());
+        revokedUserList.revoke(existingUser.getUsername());
+        refreshTokenStore.revokeAllForUser(existingUser.getUsername());
+        return deleted;
     }
 
     @Override
@@ -127,20 +160,32 @@ public class UserServiceImpl implements UserService {
             Integer roleId,
             String status,
             int page,
-            int size
+            int size,
+            boolean approximateTotal
     ) {
         // 1. Tính toán offset
         int offset = (page - 1) * size;
 
         // 2. Gọi Mapper
         // Lưu ý: Mapper này phải khớp với file UserMapper.java bạn vừa sửa
-        List<User> users = userMapper.findAllPaged(
-                userId, username, fullName, email, phone, roleId, status, offset, size
-        );
-
-        long totalElements = userMapper.countAll(
-                userId, username, fullName, email, phone, roleId, status
-        );
+        List<User> users;
+        long totalElements;
+        if (approximateTotal) {
+            // Đọc dư 1 dòng để biết còn trang sau, không chạy COUNT
+            users = userMapper.findAllPaged(
+                    userId, username, fullName, email, phone, roleId, status, offset, size + 1
+            );
+            totalElements = countCache.estimate(CountCache.USERS, offset, users.size(),
+                    userId, username, fullName, email, phone, roleId, status);
+            if (users.size() > size) users = users.subList(0, size);
+        } else {
+            users = userMapper.findAllPaged(
+                    userId, username, fullName, email, phone, roleId, status, offset, size
+            );
+            totalElements = countCache.count(CountCache.USERS,
+                    () -> userMapper.countAll(userId, username, fullName, email, phone, roleId, status),
+                    userId, username, fullName, email, phone, roleId, status);
+        }
 
         // 3. Convert sang DTO List
         List<UserDtoResponse> userDtos = UserConverter.toDtoList(users);
@@ -155,6 +200,7 @@ public class UserServiceImpl implements UserService {
                 .pageSize(size)
                 .totalElements(totalElements)
                 .totalPages(totalPages)
+                .approximateTotal(approximateTotal)
                 .build();
     }
 }
\ No newline at end of file
@@ -21,7 +21,8 @@ public interface VoucherService {
             LocalDateTime endDate,
             Integer usageLimit,
             int page,
-            int size
+            int size,
+            boolean approximateTotal   // true = bỏ qua COUNT, totalElements chỉ là ước lượng
     );
 
     VoucherDTOResponse createVoucher(VoucherDTORequest request);
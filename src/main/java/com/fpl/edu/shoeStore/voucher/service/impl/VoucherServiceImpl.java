@@ -1,6 +1,7 @@
 package com.fpl.edu.shoeStore.voucher.service.impl;
 
 
+import com.fpl.edu.shoeStore.common.cache.CountCache;
 import com.fpl.edu.shoeStore.common.handler.PageResponse;
 import com.fpl.edu.shoeStore.voucher.convert.VoucherConverter;
 import com.fpl.edu.shoeStore.voucher.dto.request.VoucherDTORequest;
@@ -21,15 +22,24 @@ import java.util.List;
 public class VoucherServiceImpl implements VoucherService {
 
     private final VoucherMapper voucherMapper;
+    private final CountCache countCache;
 
     @Override
     @Transactional
-    public PageResponse<VoucherDTOResponse> findAllPaged(Integer voucherId, String code, String description, String type, BigDecimal discountValue, BigDecimal minSpend, LocalDateTime startDate, LocalDateTime endDate, Integer usageLimit, int page, int size) {
+    public PageResponse<VoucherDTOResponse> findAllPaged(Integer voucherId, String code, String description, String type, BigDecimal discountValue, BigDecimal minSpend, LocalDateTime startDate, LocalDateTime endDate, Integer usageLimit, int page, int size, boolean approximateTotal) {
         int offset = (page - 1) * size;
 
-        List<Voucher> vouchers = voucherMapper.findAllPaged(voucherId, code, description, type, discountValue, minSpend, startDate, endDate, usageLimit, offset, size);
+        // approximateTotal: đọc dư 1 dòng để biết còn trang sau, không chạy COUNT
+        List<Voucher> vouchers = voucherMapper.findAllPaged(voucherId, code, description, type, discountValue, minSpend, startDate, endDate, usageLimit, offset, approximateTotal ? size + 1 : size);
 
-        long totalElements = voucherMapper.countAll(voucherId, code,description, type, discountValue, minSpend, startDate, endDate, usageLimit);
+        long totalElements = approximateTotal
+                ? countCache.estimate(CountCache.VOUCHERS, offset, vouchers.size(), voucherId, code, description, type, discountValue, minSpend, startDate, endDate, usageLimit)
+                : countCache.count(CountCache.VOUCHERS,
+                        () -> voucherMapper.countAll(voucherId, code,description, type, discountValue, minSpend, startDate, endDate, usageLimit),
+                        voucherId, code, description, type, discountValue, minSpend, startDate, endDate, usageLimit);
+        if (vouchers.size() > size) {
+            vouchers = vouchers.subList(0, size);
+        }
 
         List<VoucherDTOResponse> voucherDTOs = VoucherConverter.toDTOList(vouchers);
 
@@ -41,6 +51,7 @@ public class VoucherServiceImpl implements VoucherService {
                 .pageSize(size)
                 .totalElements(totalElements)
                 .totalPages(totalPages)
+                .approximateTotal(approximateTotal)
                 .build();
     };
 
@@ -59,6 +70,7 @@ public class VoucherServiceImpl implements VoucherService {
         voucher.setUpdateAt(LocalDateTime.now());
 
         voucherMapper.insert(voucher);
+        countCache.invalidate(CountCache.VOUCHERS);
 
         return VoucherConverter.toDTO(voucher);
 
@@ -106,6 +118,7 @@ public class VoucherServiceImpl implements VoucherService {
         existsVoucher.setUpdateAt(LocalDateTime.now());
 
         voucherMapper.update(existsVoucher);
+        countCache.invalidate(CountCache.VOUCHERS);
 
         return VoucherConverter.toDTO(existsVoucher);
 
@@ -118,7 +131,9 @@ public class VoucherServiceImpl implements VoucherService {
         if (existsVoucher == null ){
             throw new RuntimeException("Không tìm thấy Voucher có ID: " + id);
         }
-        return voucherMapper.deleteById(id);
+        int deleted = voucherMapper.deleteById(id);
+        countCache.invalidate(CountCache.VOUCHERS);
+        return deleted;
     }
 
     @Override
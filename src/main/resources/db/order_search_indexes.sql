@@ -0,0 +1,28 @@
+-- Index cho tìm kiếm đơn hàng (Admin) - OrderMapper.xml, <sql id="searchFilter">
+-- Chạy một lần trên MariaDB (phần FULLTEXT cần có trước khi bật order.search.full-text=true)
+
+-- Số điện thoại chuẩn hóa để tìm kiếm; shipping_phone giữ nguyên như khách nhập (đơn mới ghi cả 2 cột khi tạo)
+ALTER TABLE orders ADD COLUMN shipping_phone_normalized VARCHAR(20) NULL AFTER shipping_phone;
+
+-- Backfill giống OrderSearchCriteria.normalizePhone: bỏ khoảng trắng . ( ) -, +84 -> 0, mã nước khác bỏ dấu +
+UPDATE orders
+SET shipping_phone_normalized = REGEXP_REPLACE(
+        REGEXP_REPLACE(REGEXP_REPLACE(shipping_phone, '[[:space:].()-]', ''), '^\\+84', '0'),
+        '^\\+', '')
+WHERE shipping_phone IS NOT NULL;
+
+-- Tra cứu theo tiền tố số điện thoại: shipping_phone_normalized LIKE '0912%'
+ALTER TABLE orders ADD INDEX idx_orders_shipping_phone_normalized (shipping_phone_normalized);
+
+-- Tra cứu theo mấy số cuối mà vẫn đi index: shipping_phone_reversed LIKE '8765%' (= số kết thúc bằng 5678)
+ALTER TABLE orders
+    ADD COLUMN shipping_phone_reversed VARCHAR(20) AS (REVERSE(shipping_phone_normalized)) STORED,
+    ADD INDEX idx_orders_shipping_phone_reversed (shipping_phone_reversed);
+
+-- Tìm theo tên người nhận: MATCH(shipping_fullname) AGAINST ('+Nguyen* +An*' IN BOOLEAN MODE)
+-- Lưu ý: InnoDB bỏ qua từ ngắn hơn innodb_ft_min_token_size (mặc định 3)
+ALTER TABLE orders ADD FULLTEXT INDEX ft_orders_shipping_fullname (shipping_fullname);
+
+-- Sắp xếp / keyset pagination: ORDER BY order_date DESC, order_id DESC
+ALTER TABLE orders ADD INDEX idx_orders_status_date (status, order_date, order_id);
+ALTER TABLE orders ADD INDEX idx_orders_date (order_date, order_id);
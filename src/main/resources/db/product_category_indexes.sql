@@ -0,0 +1,3 @@
+-- Index cho lọc sản phẩm theo danh mục / cây danh mục - ProductMapper.xml, <sql id="categoryFilter">
+-- category_id IN (...) ORDER BY create_at DESC
+ALTER TABLE products ADD INDEX idx_products_category_created (category_id, create_at);
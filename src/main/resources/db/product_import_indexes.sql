@@ -0,0 +1,3 @@
+-- Index cho import sản phẩm hàng loạt - tra product_code / product_variant_code theo lô (findByProductCodes, findExistingCodes)
+ALTER TABLE products ADD INDEX idx_products_product_code (product_code);
+ALTER TABLE product_variants ADD INDEX idx_product_variants_code (product_variant_code);
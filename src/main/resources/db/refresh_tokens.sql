@@ -0,0 +1,15 @@
+-- Refresh token đã phát hành (RefreshTokenMapper.xml) - chạy một lần trên MariaDB
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    jti         CHAR(36)     NOT NULL PRIMARY KEY,
+    username    VARCHAR(100) NOT NULL,
+    issued_at   DATETIME     NOT NULL,
+    expires_at  DATETIME     NOT NULL,
+    revoked_at  DATETIME     NULL,
+    replaced_by CHAR(36)     NULL,
+    -- Thu hồi toàn bộ token của user (đổi mật khẩu, khóa, phát hiện dùng lại token)
+    INDEX idx_refresh_tokens_username (username, revoked_at),
+    -- Đồng bộ tập thu hồi giữa các instance: revoked_at >= ?
+    INDEX idx_refresh_tokens_revoked (revoked_at),
+    -- Dọn token hết hạn: expires_at < ?
+    INDEX idx_refresh_tokens_expires (expires_at)
+);
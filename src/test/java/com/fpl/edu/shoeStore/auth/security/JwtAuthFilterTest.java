@@ -0,0 +1,84 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * JwtAuthFilter chỉ xác thực bằng access token: refresh token gửi qua Authorization bị bỏ qua.
+ */
+class JwtAuthFilterTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("shoe-store-test-secret-key-32-bytes!!".getBytes());
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final TokenPrincipalCache principalCache = mock(TokenPrincipalCache.class);
+    private final RevokedUserList revokedUserList = mock(RevokedUserList.class);
+
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthFilter(jwtUtil, userDetailsService, principalCache, revokedUserList);
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesAccessToken() throws Exception {
+        doFilter(jwtUtil.generateAccessToken("alice", 2, "ADMIN", "ACTIVE"));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("alice", authentication.getName());
+    }
+
+    @Test
+    void ignoresRefreshTokenUsedAsBearer() throws Exception {
+        doFilter(jwtUtil.generateRefreshToken("alice", 2, "3f1c2a4e-0000-4000-8000-000000000001"));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(principalCache, userDetailsService);
+    }
+
+    @Test
+    void ignoresLegacyRefreshTokenWithoutJti() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", false);
+
+        doFilter(jwtUtil.generateToken("alice", 2, jwtUtil.getMaxTokenLifetimeMs()));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(principalCache, userDetailsService);
+    }
+
+    private void doFilter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+}
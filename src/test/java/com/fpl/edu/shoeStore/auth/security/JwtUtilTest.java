@@ -0,0 +1,60 @@
+package com.fpl.edu.shoeStore.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra JwtUtil với key / parser dựng sẵn: đọc đủ claims trong một lần parse, từ chối token ký bằng key khác,
+ * phân biệt refresh token với access token.
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("shoe-store-test-secret-key-32-bytes!!".getBytes());
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET);
+
+    @Test
+    void parseReturnsAllClaimsInOnePass() {
+        String token = jwtUtil.generateAccessToken("alice", 2, "ADMIN", "active");
+
+        Claims claims = jwtUtil.parse(token);
+
+        assertEquals("alice", claims.getSubject());
+        assertEquals(2, claims.get(JwtUtil.CLAIM_ROLE_ID, Integer.class));
+        assertEquals("ADMIN", claims.get(JwtUtil.CLAIM_ROLE_NAME, String.class));
+        assertEquals("active", claims.get(JwtUtil.CLAIM_STATUS, String.class));
+        assertTrue(jwtUtil.isValid(token));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        JwtUtil other = new JwtUtil(Base64.getEncoder()
+                .encodeToString("another-secret-key-with-32-bytes-min!".getBytes()));
+        String token = other.generateAccessToken("alice", 1);
+
+        assertFalse(jwtUtil.isValid(token));
+        assertThrows(JwtException.class, () -> jwtUtil.parse(token));
+    }
+
+    @Test
+    void recognisesRefreshTokens() {
+        Claims access = jwtUtil.parse(jwtUtil.generateAccessToken("alice", 1, "USER", "ACTIVE"));
+        Claims refresh = jwtUtil.parse(jwtUtil.generateRefreshToken("alice", 1, "3f1c2a4e-0000-4000-8000-000000000001"));
+        // Refresh token cũ: không có jti / typ nhưng sống 7 ngày
+        Claims legacyRefresh = jwtUtil.parse(jwtUtil.generateToken("alice", 1, jwtUtil.getMaxTokenLifetimeMs()));
+
+        assertFalse(jwtUtil.isRefreshToken(access));
+        assertTrue(jwtUtil.isRefreshToken(refresh));
+        assertEquals(JwtUtil.TOKEN_TYPE_REFRESH, refresh.get(JwtUtil.CLAIM_TOKEN_TYPE, String.class));
+        assertTrue(jwtUtil.isRefreshToken(legacyRefresh));
+    }
+}
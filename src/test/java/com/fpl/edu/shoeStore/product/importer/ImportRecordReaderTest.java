@@ -0,0 +1,89 @@
+package com.fpl.edu.shoeStore.product.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportRecordReaderTest {
+
+    @Test
+    void readsQuotedValuesWithCommasNewlinesAndEscapedQuotes() throws IOException {
+        List<ImportRecord> records = readAll(ImportFormat.CSV,
+                "\uFEFFProduct_Code,Title,Description\n"
+                        + "P1,\"Giày chạy, size lớn\",\"Dòng 1\nDòng 2\"\n"
+                        + "P2,\"Giày \"\"Air\"\"\",\"\"\n");
+
+        assertEquals(2, records.size());
+        ImportRecord first = records.get(0);
+        assertEquals(2, first.line());
+        assertNull(first.error());
+        assertEquals(Map.of("productcode", "P1", "title", "Giày chạy, size lớn", "description", "Dòng 1\nDòng 2"),
+                first.fields());
+
+        // Bản ghi trước trải 2 dòng nên bản ghi này bắt đầu ở dòng 4
+        ImportRecord second = records.get(1);
+        assertEquals(4, second.line());
+        assertEquals("Giày \"Air\"", second.fields().get("title"));
+        assertEquals("", second.fields().get("description"));
+    }
+
+    @Test
+    void reportsColumnCountMismatchAndKeepsReading() throws IOException {
+        List<ImportRecord> records = readAll(ImportFormat.CSV,
+                "sku,stock\n"
+                        + "A-1,5,extra\n"
+                        + "\n"
+                        + "A-2,7\n");
+
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(0).line());
+        assertNull(records.get(0).fields());
+        assertEquals("Số cột 3 khác header (2 cột)", records.get(0).error());
+        assertEquals(4, records.get(1).line());
+        assertEquals(Map.of("variantcode", "A-2", "stockqty", "7"), records.get(1).fields());
+    }
+
+    @Test
+    void reportsUnterminatedQuote() throws IOException {
+        List<ImportRecord> records = readAll(ImportFormat.CSV,
+                "sku,title\n"
+                        + "A-1,\"không đóng nháy\n"
+                        + "A-2,abc\n");
+
+        assertEquals(1, records.size());
+        assertEquals(2, records.get(0).line());
+        assertEquals("Thiếu dấu nháy kép đóng", records.get(0).error());
+    }
+
+    @Test
+    void readsNdjsonLinesAndSkipsBlankOnes() throws IOException {
+        List<ImportRecord> records = readAll(ImportFormat.NDJSON,
+                "\uFEFF{\"sku\":\"A-1\"}\n\n  \n{\"sku\":\"A-2\"}\n");
+
+        assertEquals(2, records.size());
+        assertEquals("{\"sku\":\"A-1\"}", records.get(0).json());
+        assertEquals(4, records.get(1).line());
+        assertTrue(records.stream().allMatch(record -> record.fields() == null && record.error() == null));
+    }
+
+    private static List<ImportRecord> readAll(ImportFormat format, String content) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        try (ImportRecordReader reader = new ImportRecordReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format)) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
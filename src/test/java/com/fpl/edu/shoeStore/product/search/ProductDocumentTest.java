@@ -0,0 +1,34 @@
+package com.fpl.edu.shoeStore.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductDocumentTest {
+
+    @Test
+    void parseAttributeReadsAdminFormat() {
+        assertArrayEquals(new String[]{"42", "Đen"}, ProductDocument.parseAttribute("42 - Đen"));
+        assertArrayEquals(new String[]{"42", null}, ProductDocument.parseAttribute(" 42 "));
+        assertArrayEquals(new String[]{null, null}, ProductDocument.parseAttribute("  "));
+        assertArrayEquals(new String[]{null, null}, ProductDocument.parseAttribute(null));
+    }
+
+    @Test
+    void parseAttributeReadsJsonFormat() {
+        assertArrayEquals(new String[]{"40", "Black"}, ProductDocument.parseAttribute("{\"Size\": 40, \"Color\": \"Black\"}"));
+        assertArrayEquals(new String[]{"39", "Đỏ"}, ProductDocument.parseAttribute("{\"Màu sắc\": \"Đỏ\", \"Kích thước\": \"39\"}"));
+        assertArrayEquals(new String[]{null, "Trắng"}, ProductDocument.parseAttribute("{\"Size\": \"\", \"Màu\": \"Trắng\"}"));
+    }
+
+    @Test
+    void tokenizeLowercasesAndStripsDiacritics() {
+        assertEquals(List.of("giay", "do", "size", "42"), ProductDocument.tokenize("Giày ĐỎ - size 42"));
+        assertEquals(List.of("nike", "air", "max"), ProductDocument.tokenize("  Nike/Air,Max!! "));
+        assertEquals(List.of(), ProductDocument.tokenize(" \t"));
+        assertEquals(List.of(), ProductDocument.tokenize(null));
+    }
+}
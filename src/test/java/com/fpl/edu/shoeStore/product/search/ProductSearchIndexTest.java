@@ -0,0 +1,129 @@
+package com.fpl.edu.shoeStore.product.search;
+
+import com.fpl.edu.shoeStore.category.cache.CategoryTree;
+import com.fpl.edu.shoeStore.category.cache.CategoryTreeCache;
+import com.fpl.edu.shoeStore.product.dto.request.ProductSearchRequest;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchHit;
+import com.fpl.edu.shoeStore.product.dto.response.ProductSearchResponse;
+import com.fpl.edu.shoeStore.product.entity.Product;
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.mapper.ProductMapper;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lọc size / màu / giá theo từng variant và đánh index lại sau khi variant thay đổi.
+ *
+ * Sản phẩm 1: 42 - Đen (1.000.000), 40 - Đỏ (2.500.000); sản phẩm 2: 42 - Đỏ (900.000).
+ */
+class ProductSearchIndexTest {
+
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final ProductVariantMapper productVariantMapper = mock(ProductVariantMapper.class);
+    private final CategoryTreeCache categoryTreeCache = mock(CategoryTreeCache.class);
+
+    private final List<ProductVariant> variants = new ArrayList<>();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = List.of(product(1, "Nike Air"), product(2, "Adidas Run"));
+        variants.add(variant(11, 1, "42 - Đen", 1_000_000));
+        variants.add(variant(12, 1, "40 - Đỏ", 2_500_000));
+        variants.add(variant(21, 2, "42 - Đỏ", 900_000));
+
+        when(productMapper.findAll()).thenReturn(products);
+        when(productMapper.findById(2)).thenReturn(products.get(1));
+        when(productVariantMapper.findAll()).thenAnswer(invocation -> List.copyOf(variants));
+        when(productVariantMapper.findByProductId(2)).thenAnswer(invocation -> variants.stream()
+                .filter(variant -> variant.getProductId() == 2)
+                .collect(Collectors.toList()));
+        when(categoryTreeCache.get()).thenReturn(CategoryTree.build(List.of(), Map.of()));
+
+        index = new ProductSearchIndex(productMapper, productVariantMapper, categoryTreeCache);
+        ReflectionTestUtils.setField(index, "priceBuckets", "1000000,2000000");
+        index.init();
+    }
+
+    @Test
+    void sizeAndColorMustMatchTheSameVariant() {
+        ProductSearchResponse response = index.search(request("42", "do", null, null));
+
+        assertEquals(List.of(2), productIds(response));
+        assertEquals(Map.of("42", 1), response.getFacets().get(ProductSearchIndex.FACET_SIZE));
+        assertEquals(Map.of("Đỏ", 1), response.getFacets().get(ProductSearchIndex.FACET_COLOR));
+    }
+
+    @Test
+    void priceFilterUsesPriceOfMatchingVariant() {
+        // Sản phẩm 1 có giá 1.000.000..2.500.000 nhưng variant size 42 chỉ 1.000.000
+        assertEquals(List.of(), productIds(index.search(request("42", null, bd(2_000_000), bd(3_000_000)))));
+        assertEquals(List.of(1), productIds(index.search(request(null, null, bd(2_000_000), bd(3_000_000)))));
+    }
+
+    @Test
+    void facetsCountProductsByMatchingVariants() {
+        ProductSearchResponse response = index.search(request("42", null, null, null));
+
+        assertEquals(2, response.getTotalElements());
+        assertEquals(Map.of("42", 2), response.getFacets().get(ProductSearchIndex.FACET_SIZE));
+        assertEquals(Map.of("Đen", 1, "Đỏ", 1), response.getFacets().get(ProductSearchIndex.FACET_COLOR));
+        assertEquals(Map.of("0-1000000", 1, "1000000-2000000", 1), response.getFacets().get(ProductSearchIndex.FACET_PRICE));
+    }
+
+    @Test
+    void reindexPicksUpVariantChanges() {
+        assertEquals(List.of(2), productIds(index.search(request("42", "do", null, null))));
+
+        variants.set(2, variant(21, 2, "41 - Đỏ", 900_000));
+        index.reindexAfterCommit(2);
+
+        assertEquals(List.of(), productIds(index.search(request("42", "do", null, null))));
+        assertEquals(List.of(2), productIds(index.search(request("41", "Đỏ", null, null))));
+    }
+
+    private static ProductSearchRequest request(String size, String color, BigDecimal minPrice, BigDecimal maxPrice) {
+        return ProductSearchRequest.builder()
+                .shoeSize(size)
+                .color(color)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .page(1)
+                .size(20)
+                .build();
+    }
+
+    private static List<Integer> productIds(ProductSearchResponse response) {
+        return response.getContent().stream().map(ProductSearchHit::getProductId).sorted().collect(Collectors.toList());
+    }
+
+    private static Product product(int id, String title) {
+        return Product.builder().productId(id).title(title).isActive(true).build();
+    }
+
+    private static ProductVariant variant(int id, int productId, String attribute, long price) {
+        return ProductVariant.builder()
+                .variantId(id)
+                .productId(productId)
+                .attribute(attribute)
+                .price(bd(price))
+                .isActive(true)
+                .build();
+    }
+
+    private static BigDecimal bd(long value) {
+        return BigDecimal.valueOf(value);
+    }
+}
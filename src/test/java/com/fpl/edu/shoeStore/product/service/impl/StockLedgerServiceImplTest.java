@@ -0,0 +1,199 @@
+package com.fpl.edu.shoeStore.product.service.impl;
+
+import com.fpl.edu.shoeStore.product.entity.ProductVariant;
+import com.fpl.edu.shoeStore.product.mapper.ProductVariantMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sổ tồn kho trong bộ nhớ: nhiều luồng cùng giữ hàng một SKU nóng, flush và admin sửa tồn kho chạy song song.
+ * Cột stock_qty được giả lập bằng {@code dbStock} (applyStockDeltas cộng dồn vào đó).
+ */
+class StockLedgerServiceImplTest {
+
+    private static final int HOT_VARIANT_ID = 1;
+    private static final int INITIAL_STOCK = 10_000;
+
+    private final AtomicLong dbStock = new AtomicLong(INITIAL_STOCK);
+    private ProductVariantMapper mapper;
+    private StockLedgerServiceImpl ledger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(ProductVariantMapper.class);
+        when(mapper.findByIds(anyList())).thenReturn(List.of(
+                ProductVariant.builder().variantId(HOT_VARIANT_ID).stockQty(INITIAL_STOCK).build()));
+        doAnswer(invocation -> {
+            Map<Integer, Integer> deltas = invocation.getArgument(0);
+            dbStock.addAndGet(deltas.getOrDefault(HOT_VARIANT_ID, 0));
+            return deltas.size();
+        }).when(mapper).applyStockDeltas(anyMap());
+
+        ledger = new StockLedgerServiceImpl(mapper);
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "variantIds", String.valueOf(HOT_VARIANT_ID));
+        ReflectionTestUtils.setField(ledger, "flushIntervalMs", 60_000L);
+        ledger.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.stop();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 2_000;
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (ledger.reserve(Map.of(HOT_VARIANT_ID, 1)).isEmpty()) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertAvailable(0);
+        ledger.flush();
+        assertEquals(0, dbStock.get());
+    }
+
+    @Test
+    void flushAndAdminAdjustmentsKeepAvailableConsistentWithDb() throws Exception {
+        int reservers = 8;
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicLong adjusted = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(reservers + 2);
+
+        for (int t = 0; t < reservers; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 3_000; i++) {
+                    if (ledger.reserve(Map.of(HOT_VARIANT_ID, 2)).isEmpty()) {
+                        reserved.addAndGet(2);
+                    }
+                }
+                return null;
+            });
+        }
+        pool.submit(() -> {
+            start.await();
+            while (running.get()) {
+                ledger.flush();
+            }
+            return null;
+        });
+        pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < 2_000; i++) {
+                int delta = i % 3 == 0 ? -3 : 5;
+                ledger.adjust(HOT_VARIANT_ID, delta);
+                adjusted.addAndGet(delta);
+            }
+            return null;
+        });
+
+        start.countDown();
+        Thread.sleep(200);
+        running.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        ledger.flush();
+
+        long expected = INITIAL_STOCK - reserved.get() + adjusted.get();
+        assertEquals(expected, dbStock.get());
+        assertAvailable(expected);
+    }
+
+    @Test
+    void adminAdjustmentDoesNotWipeInFlightReservation() {
+        AtomicBoolean commitReservation = new AtomicBoolean();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Đơn hàng đã giữ 4 nhưng chưa commit khi admin nhập thêm 5
+            assertTrue(ledger.reserve(Map.of(HOT_VARIANT_ID, 4)).isEmpty());
+            commitReservation.set(true);
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            ledger.adjust(HOT_VARIANT_ID, 5);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(commitReservation.get()
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK));
+        }
+
+        ledger.flush();
+        assertEquals(INITIAL_STOCK - 4 + 5, dbStock.get());
+        assertAvailable(INITIAL_STOCK - 4 + 5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushCoalescesCommittedDeltasIntoOneUpdate() {
+        ledger.reserve(Map.of(HOT_VARIANT_ID, 3));
+        ledger.reserve(Map.of(HOT_VARIANT_ID, 2));
+        ledger.restock(Map.of(HOT_VARIANT_ID, 1));
+
+        ledger.flush();
+
+        ArgumentCaptor<Map<Integer, Integer>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(mapper).applyStockDeltas(deltas.capture());
+        assertEquals(Map.of(HOT_VARIANT_ID, -4), deltas.getValue());
+    }
+
+    @Test
+    void nonPositiveQuantityIsRejectedInsteadOfAddingStock() {
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve(Map.of(HOT_VARIANT_ID, -5)));
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve(Map.of(HOT_VARIANT_ID, 0)));
+
+        assertAvailable(INITIAL_STOCK);
+    }
+
+    // available đúng bằng expected: giữ được expected, không giữ được expected + 1
+    private void assertAvailable(long expected) {
+        assertTrue(ledger.findShortages(Map.of(HOT_VARIANT_ID, (int) expected)).isEmpty(),
+                "available < " + expected);
+        assertEquals(List.of(HOT_VARIANT_ID), ledger.findShortages(Map.of(HOT_VARIANT_ID, (int) expected + 1)),
+                "available > " + expected);
+    }
+}